@@ -0,0 +1,164 @@
+// BrowserAdmission.java - Admits new browser sessions only while the host has headroom
+package Browser_utils;
+
+import config.ConfigLoader;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.management.ManagementFactory;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sits in front of DriverFactory.createDriver and decides WHEN a new browser may start.
+ *
+ * A new session is admitted only if all of these hold:
+ *   - fewer sessions (running + launching) than CPU cores
+ *   - the system load average is not above the core count
+ *   - MemAvailable covers one more session plus "Admission_Reserve_Mb" from info.json
+ *
+ * "One more session" is the measured average RSS of the sessions already running
+ * (driver + browser + renderers), so the limit adapts to the real pages being tested
+ * instead of a hand-tuned thread count. Until something has been measured a Chrome-sized
+ * default is assumed. Callers that don't fit wait with exponential backoff and are woken
+ * early whenever a session is released. The first session is always admitted.
+ *
+ * Launches run concurrently once admitted. Each session's processes are found from
+ * the session itself (BrowserProcesses.sessionRoots) and kept for RSS sampling and
+ * for killing a hung session.
+ *
+ * In grid mode the browsers run on Grid nodes, so none of this applies and sessions
+ * are created straight away (GridClient waits for a free node slot instead).
+ */
+public class BrowserAdmission {
+
+    private static final long DEFAULT_SESSION_BYTES = 600L * 1024 * 1024;
+    private static final long MIN_BACKOFF_MS = 250;
+    private static final long MAX_BACKOFF_MS = 4000;
+
+    private static final Object monitor = new Object();
+
+    // driver → root PIDs of its processes (see BrowserProcesses.sessionRoots)
+    private static final Map<WebDriver, Set<Long>> sessions = new IdentityHashMap<>();
+    private static int launching = 0;
+    private static long lastSessionBytes = DEFAULT_SESSION_BYTES;
+
+    private BrowserAdmission() {}
+
+    /**
+     * Waits until the host can take another browser, then launches it.
+     * Pair every call with release(driver).
+     */
+    public static WebDriver createDriver(String browser) throws InterruptedException {
+        if (GridClient.isEnabled()) {
+            return DriverFactory.createDriver(browser);
+        }
+        admit(browser);
+
+        WebDriver driver = null;
+        Set<Long> roots = Set.of();
+        try {
+            driver = DriverFactory.createDriver(browser);
+            roots = BrowserProcesses.sessionRoots(driver);
+            return driver;
+        } finally {
+            synchronized (monitor) {
+                launching--;
+                if (driver != null) {
+                    sessions.put(driver, roots);
+                }
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Forgets a session and wakes up anyone waiting for headroom. Does not quit the driver.
+     */
+    public static void release(WebDriver driver) {
+        synchronized (monitor) {
+            sessions.remove(driver);
+            monitor.notifyAll();
+        }
+    }
+
+    /** Root PIDs recorded for a session, or an empty set if it wasn't launched here. */
+    public static Set<Long> processRoots(WebDriver driver) {
+        synchronized (monitor) {
+            return Set.copyOf(sessions.getOrDefault(driver, Set.of()));
+        }
+    }
+
+    /** Current RSS of one session's whole process tree in bytes (0 if unknown). */
+    public static long sessionRssBytes(WebDriver driver) {
+        return BrowserProcesses.treeRssBytes(processRoots(driver));
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    private static void admit(String browser) throws InterruptedException {
+        synchronized (monitor) {
+            long backoff = MIN_BACKOFF_MS;
+            String lastReason = null;
+            while (true) {
+                String reason = (sessions.isEmpty() && launching == 0) ? null : saturationReason();
+                if (reason == null) {
+                    launching++;
+                    return;
+                }
+                if (!reason.equals(lastReason)) {
+                    System.out.println("  [admission] " + browser + " waiting — " + reason);
+                    lastReason = reason;
+                }
+                monitor.wait(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MS);
+            }
+        }
+    }
+
+    // Returns why the host is saturated, or null if another session fits. Caller holds monitor.
+    private static String saturationReason() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int active = sessions.size() + launching;
+        if (active >= cores) {
+            return active + " session(s) already on " + cores + " core(s)";
+        }
+
+        double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        if (load > cores) {
+            return String.format("load average %.1f over %d core(s)", load, cores);
+        }
+
+        long perSession = measureSessionBytes();
+        long needed = perSession * (launching + 1) + ConfigLoader.getAdmissionReserveMb() * 1024L * 1024;
+        long available = BrowserProcesses.availableMemoryBytes();
+        if (available < needed) {
+            return "only " + toMb(available) + " MB available, need " + toMb(needed)
+                    + " MB (" + toMb(perSession) + " MB per session)";
+        }
+        return null;
+    }
+
+    // Average RSS of running sessions; remembers the last good figure for when none can be read
+    private static long measureSessionBytes() {
+        long total = 0;
+        int measured = 0;
+        for (Set<Long> roots : sessions.values()) {
+            long rss = BrowserProcesses.treeRssBytes(roots);
+            if (rss > 0) {
+                total += rss;
+                measured++;
+            }
+        }
+        if (measured > 0) {
+            lastSessionBytes = total / measured;
+        }
+        return lastSessionBytes;
+    }
+
+    private static long toMb(long bytes) {
+        return bytes / (1024 * 1024);
+    }
+}
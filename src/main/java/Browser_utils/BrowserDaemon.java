@@ -0,0 +1,296 @@
+// BrowserDaemon.java - Long-lived process that owns browser sessions for short-lived test JVMs
+package Browser_utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import config.ConfigLoader;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps browsers running between test runs so iterating on a page object doesn't pay
+ * for JVM warm-up, driver resolution and browser launch every time.
+ *
+ * Start it once (from the IDE or the command line):
+ *
+ *      java -cp <test classpath> Browser_utils.BrowserDaemon chrome=2 firefox=1
+ *
+ * then set "Driver_Mode": "daemon" in info.json. DriverFactory.createDriver now leases
+ * one of the daemon's sessions through DaemonClient instead of launching a browser,
+ * and quit() hands it back instead of closing it — the browser stays on whatever page
+ * the last run left it on.
+ *
+ * A lease lives "Daemon_Lease_Seconds" (default 60) and DaemonClient renews it with a
+ * heartbeat. A client that dies without releasing (kill -9, IDE stop button) stops
+ * beating, and its session is freed once the lease expires. Release and heartbeat
+ * carry the lease token, so a late call from an expired client can't touch a session
+ * that has since been leased to someone else.
+ *
+ * HTTP API on localhost:"Daemon_Port" (default 4455), JSON responses:
+ *      GET  /sessions                        all sessions and whether they are leased
+ *      POST /lease?browser=chrome            { id, browser, serverUrl, sessionId, capabilities,
+ *                                              token, ttlSeconds } or 503
+ *      POST /heartbeat?id=chrome-1&token=…   renew the lease, 409 if it is no longer yours
+ *      POST /release?id=chrome-1&token=…     hand a session back
+ *      POST /release?id=chrome-1&force=true  free a session whatever its lease
+ *      POST /shutdown                        quit every browser and exit
+ */
+public class BrowserDaemon {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    static class DaemonSession {
+        final String id;
+        final String browser;
+        WebDriver driver;          // as created: decorated when ProfileTemplate is on
+        RemoteWebDriver remote;    // the session underneath, for its id and capabilities
+        boolean leased = false;
+        String token;
+        long expiresAtMillis;
+
+        DaemonSession(String id, String browser, WebDriver driver) {
+            this.id = id;
+            this.browser = browser;
+            attach(driver);
+        }
+
+        void attach(WebDriver driver) {
+            this.driver = driver;
+            this.remote = remoteOf(driver);
+        }
+    }
+
+    private final List<DaemonSession> sessions = new ArrayList<>();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private final long leaseMillis = TimeUnit.SECONDS.toMillis(ConfigLoader.getDaemonLeaseSeconds());
+
+    public static void main(String[] args) throws Exception {
+        Map<String, Integer> wanted = new HashMap<>();
+        for (String arg : args) {
+            String[] parts = arg.split("=");
+            wanted.put(parts[0].toLowerCase(), parts.length > 1 ? Integer.parseInt(parts[1]) : 1);
+        }
+        if (wanted.isEmpty()) {
+            wanted.put(ConfigLoader.getBrowser().toLowerCase(), 1);
+        }
+        new BrowserDaemon().run(wanted, ConfigLoader.getDaemonPort());
+    }
+
+    public void run(Map<String, Integer> wanted, int port) throws IOException, InterruptedException {
+        OrphanReaper.reapOnce();
+        for (Map.Entry<String, Integer> entry : wanted.entrySet()) {
+            for (int i = 1; i <= entry.getValue(); i++) {
+                String id = entry.getKey() + "-" + i;
+                sessions.add(new DaemonSession(id, entry.getKey(), DriverFactory.createLocalDriver(entry.getKey())));
+                System.out.println("✓ Daemon session " + id + " ready");
+            }
+        }
+
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/sessions", exchange -> respond(exchange, 200, listSessions()));
+        server.createContext("/lease", exchange -> lease(exchange));
+        server.createContext("/heartbeat", exchange -> heartbeat(exchange));
+        server.createContext("/release", exchange -> release(exchange));
+        server.createContext("/shutdown", exchange -> {
+            respond(exchange, 200, mapper.createObjectNode().put("stopping", true));
+            stopped.countDown();
+        });
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::quitAll, "daemon-shutdown"));
+
+        ScheduledExecutorService expiry = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "daemon-lease-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiry.scheduleWithFixedDelay(this::expireLeases, 1, 1, TimeUnit.SECONDS);
+
+        System.out.println("Browser daemon listening on http://localhost:" + port + " with " + sessions.size() + " session(s)");
+        stopped.await();
+        expiry.shutdownNow();
+        server.stop(0);
+        quitAll();
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HANDLERS
+    // ─────────────────────────────────────────────────────────
+
+    private synchronized void lease(HttpExchange exchange) throws IOException {
+        String browser = queryParam(exchange, "browser");
+        for (DaemonSession session : sessions) {
+            if (session.leased || (browser != null && !session.browser.equalsIgnoreCase(browser))) {
+                continue;
+            }
+            if (!isAlive(session)) {
+                System.out.println("Session " + session.id + " died — relaunching");
+                session.attach(DriverFactory.createLocalDriver(session.browser));
+            }
+            session.leased = true;
+            session.token = UUID.randomUUID().toString();
+            session.expiresAtMillis = System.currentTimeMillis() + leaseMillis;
+            System.out.println("→ leased " + session.id);
+            respond(exchange, 200, describe(session)
+                    .put("token", session.token)
+                    .put("ttlSeconds", TimeUnit.MILLISECONDS.toSeconds(leaseMillis)));
+            return;
+        }
+        respond(exchange, 503, mapper.createObjectNode()
+                .put("error", "No free " + (browser != null ? browser : "") + " session in the daemon"));
+    }
+
+    private synchronized void heartbeat(HttpExchange exchange) throws IOException {
+        DaemonSession session = find(queryParam(exchange, "id"));
+        if (session == null) {
+            respond(exchange, 404, mapper.createObjectNode().put("error", "Unknown session: " + queryParam(exchange, "id")));
+        } else if (!ownsLease(session, queryParam(exchange, "token"))) {
+            respond(exchange, 409, mapper.createObjectNode().put("error", "Lease on " + session.id + " has expired"));
+        } else {
+            session.expiresAtMillis = System.currentTimeMillis() + leaseMillis;
+            respond(exchange, 200, describe(session));
+        }
+    }
+
+    private synchronized void release(HttpExchange exchange) throws IOException {
+        DaemonSession session = find(queryParam(exchange, "id"));
+        if (session == null) {
+            respond(exchange, 404, mapper.createObjectNode().put("error", "Unknown session: " + queryParam(exchange, "id")));
+            return;
+        }
+        boolean force = "true".equals(queryParam(exchange, "force"));
+        if (!force && !ownsLease(session, queryParam(exchange, "token"))) {
+            // Already expired (and maybe leased again) — nothing of the caller's to release
+            respond(exchange, 409, mapper.createObjectNode().put("error", "Lease on " + session.id + " has expired"));
+            return;
+        }
+        free(session, force ? "force-released" : "released");
+        respond(exchange, 200, describe(session));
+    }
+
+    // Frees sessions whose client stopped sending heartbeats
+    private synchronized void expireLeases() {
+        long now = System.currentTimeMillis();
+        for (DaemonSession session : sessions) {
+            if (session.leased && now > session.expiresAtMillis) {
+                free(session, "lease expired on");
+            }
+        }
+    }
+
+    private synchronized ArrayNode listSessions() {
+        ArrayNode list = mapper.createArrayNode();
+        for (DaemonSession session : sessions) {
+            list.add(describe(session));
+        }
+        return list;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    private DaemonSession find(String id) {
+        for (DaemonSession session : sessions) {
+            if (session.id.equals(id)) {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    private static boolean ownsLease(DaemonSession session, String token) {
+        return session.leased && session.token != null && session.token.equals(token);
+    }
+
+    private static void free(DaemonSession session, String how) {
+        session.leased = false;
+        session.token = null;
+        System.out.println("← " + how + " " + session.id);
+    }
+
+    static ObjectNode describe(DaemonSession session) {
+        RemoteWebDriver remote = session.remote;
+        ObjectNode node = mapper.createObjectNode();
+        node.put("id", session.id);
+        node.put("browser", session.browser);
+        node.put("leased", session.leased);
+        node.put("serverUrl", ((HttpCommandExecutor) remote.getCommandExecutor()).getAddressOfRemoteServer().toString());
+        node.put("sessionId", remote.getSessionId().toString());
+        node.set("capabilities", mapper.valueToTree(remote.getCapabilities().asMap()));
+        return node;
+    }
+
+    // Through decorators (ProfileTemplate.deleteOnQuit) down to the RemoteWebDriver
+    static RemoteWebDriver remoteOf(WebDriver driver) {
+        WebDriver current = driver;
+        while (!(current instanceof RemoteWebDriver) && current instanceof WrapsDriver) {
+            current = ((WrapsDriver) current).getWrappedDriver();
+        }
+        if (!(current instanceof RemoteWebDriver)) {
+            throw new IllegalStateException("Daemon sessions must be RemoteWebDriver sessions, got " + driver.getClass());
+        }
+        return (RemoteWebDriver) current;
+    }
+
+    private static boolean isAlive(DaemonSession session) {
+        try {
+            session.driver.getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private synchronized void quitAll() {
+        for (DaemonSession session : sessions) {
+            try {
+                session.driver.quit();
+            } catch (Exception ignored) {}
+        }
+        sessions.clear();
+    }
+
+    private static String queryParam(HttpExchange exchange, String name) {
+        String query = URI.create(exchange.getRequestURI().toString()).getQuery();
+        if (query == null) {
+            return null;
+        }
+        for (String pair : query.split("&")) {
+            String[] parts = pair.split("=", 2);
+            if (parts[0].equals(name) && parts.length > 1) {
+                return parts[1];
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
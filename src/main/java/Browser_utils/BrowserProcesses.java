@@ -0,0 +1,140 @@
+// BrowserProcesses.java - Finds the OS processes behind a browser session and measures them
+package Browser_utils;
+
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.HasCapabilities;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The JVM spawns the driver binary (chromedriver / geckodriver / msedgedriver) and
+ * the driver spawns the browser, which spawns its renderers. So every browser
+ * process is a descendant of the JVM.
+ *
+ * sessionRoots() finds a session's processes from the session itself, so sessions
+ * launched at the same time never claim each other's processes: Firefox reports its
+ * PID ("moz:processID"), Chrome and Edge their user-data dir, which appears on the
+ * browser's command line. The root is the session's own driver process when it has
+ * one; under a shared driver service (see DriverServices) it is the browser, so
+ * killing the tree never takes other sessions' driver with it.
+ *
+ * Memory figures come from /proc and are only available on Linux; elsewhere they read 0.
+ */
+public class BrowserProcesses {
+
+    private BrowserProcesses() {}
+
+    /**
+     * Root PIDs of one local session: its driver process, or its browser process when
+     * the driver is shared. Empty for remote sessions (Grid, daemon) and when the
+     * browser can't be found.
+     */
+    public static Set<Long> sessionRoots(WebDriver driver) {
+        if (!(driver instanceof HasCapabilities)) {
+            return Set.of();
+        }
+        Optional<ProcessHandle> browser = browserProcess(((HasCapabilities) driver).getCapabilities());
+        if (browser.isEmpty()) {
+            return Set.of();
+        }
+        Optional<ProcessHandle> driverProcess = browser.get().parent()
+                .filter(parent -> !DriverServices.sharedPids().contains(parent.pid()))
+                .filter(parent -> parent.parent().map(p -> p.pid() == ProcessHandle.current().pid()).orElse(false));
+        return Set.of(driverProcess.orElse(browser.get()).pid());
+    }
+
+    /** The JVM's direct child whose command line has arg, e.g. a driver's "--port=4444". */
+    public static Optional<ProcessHandle> childWithArgument(String arg) {
+        return ProcessHandle.current().children()
+                .filter(p -> p.info().arguments().map(args -> List.of(args).contains(arg)).orElse(false))
+                .findFirst();
+    }
+
+    /** The roots plus everything below them that is still alive. */
+    public static List<ProcessHandle> tree(Set<Long> rootPids) {
+        return rootPids.stream()
+                .map(ProcessHandle::of)
+                .flatMap(Optional::stream)
+                .flatMap(root -> Stream.concat(Stream.of(root), root.descendants()))
+                .filter(ProcessHandle::isAlive)
+                .collect(Collectors.toList());
+    }
+
+    // Main browser process of a session, found by PID (Firefox) or user-data dir (Chrome, Edge)
+    private static Optional<ProcessHandle> browserProcess(Capabilities caps) {
+        Object pid = caps.getCapability("moz:processID");
+        if (pid instanceof Number) {
+            return ProcessHandle.of(((Number) pid).longValue());
+        }
+        String dataDir = null;
+        for (String key : new String[] {"chrome", "msedge"}) {
+            Object info = caps.getCapability(key);
+            if (info instanceof Map && ((Map<?, ?>) info).get("userDataDir") != null) {
+                dataDir = ((Map<?, ?>) info).get("userDataDir").toString();
+            }
+        }
+        if (dataDir == null) {
+            return Optional.empty();
+        }
+        String flag = "--user-data-dir=" + dataDir;
+        List<ProcessHandle> matches = ProcessHandle.current().descendants()
+                .filter(p -> p.info().arguments().map(args -> List.of(args).contains(flag)).orElse(false))
+                .collect(Collectors.toList());
+        Set<Long> matchPids = matches.stream().map(ProcessHandle::pid).collect(Collectors.toSet());
+        // Helpers may repeat the flag; the browser is the match whose parent isn't one
+        return matches.stream()
+                .filter(p -> p.parent().map(parent -> !matchPids.contains(parent.pid())).orElse(true))
+                .findFirst();
+    }
+
+    /** Resident set size of one process in bytes, or 0 if it can't be read. */
+    public static long rssBytes(long pid) {
+        return readKb(Paths.get("/proc", String.valueOf(pid), "status"), "VmRSS:") * 1024;
+    }
+
+    /** Summed RSS of a whole process tree in bytes. */
+    public static long treeRssBytes(Set<Long> rootPids) {
+        return tree(rootPids).stream().mapToLong(p -> rssBytes(p.pid())).sum();
+    }
+
+    /**
+     * Memory the host can still hand out, in bytes. Prefers MemAvailable (which counts
+     * reclaimable page cache) over the JVM's "free" figure, which does not.
+     */
+    public static long availableMemoryBytes() {
+        long availableKb = readKb(Paths.get("/proc", "meminfo"), "MemAvailable:");
+        if (availableKb > 0) {
+            return availableKb * 1024;
+        }
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getFreeMemorySize();
+        }
+        return Long.MAX_VALUE; // unknown — don't block admission on it
+    }
+
+    // Reads a "Key:   12345 kB" line from a /proc file
+    private static long readKb(Path file, String key) {
+        try {
+            for (String line : Files.readAllLines(file)) {
+                if (line.startsWith(key)) {
+                    String[] parts = line.substring(key.length()).trim().split("\\s+");
+                    return Long.parseLong(parts[0]);
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {}
+        return 0;
+    }
+}
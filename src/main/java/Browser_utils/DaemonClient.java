@@ -0,0 +1,175 @@
+// DaemonClient.java - Attaches this JVM to a browser session owned by BrowserDaemon
+package Browser_utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.ConfigLoader;
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.CommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.codec.w3c.W3CHttpCommandCodec;
+import org.openqa.selenium.remote.codec.w3c.W3CHttpResponseCodec;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side of BrowserDaemon. attach() leases a session and returns a RemoteWebDriver
+ * bound to it — no new session is created, no browser is launched.
+ *
+ * While attached, a daemon thread renews the lease every third of its TTL. quit()
+ * releases it; if the JVM exits without quit() a shutdown hook does, and if the JVM
+ * is killed outright the daemon expires the lease once the heartbeats stop.
+ */
+public class DaemonClient {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final java.net.http.HttpClient http = java.net.http.HttpClient.newHttpClient();
+
+    private static final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "daemon-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private DaemonClient() {}
+
+    public static RemoteWebDriver attach(String browser) {
+        JsonNode lease = call("/lease?browser=" + browser);
+        System.out.println("Attached to daemon session " + lease.get("id").asText()
+                + " (" + lease.get("sessionId").asText() + ")");
+        try {
+            Map<String, Object> caps = mapper.convertValue(lease.get("capabilities"),
+                    new TypeReference<Map<String, Object>>() {});
+            return new AttachedDriver(lease.get("id").asText(),
+                    lease.get("token").asText(),
+                    lease.get("ttlSeconds").asLong(),
+                    new URL(lease.get("serverUrl").asText()),
+                    lease.get("sessionId").asText(),
+                    new ImmutableCapabilities(caps));
+        } catch (IOException e) {
+            throw new RuntimeException("Daemon returned an invalid server URL: " + lease, e);
+        }
+    }
+
+    static void release(String leaseId, String token) {
+        call("/release?id=" + leaseId + "&token=" + token);
+        System.out.println("Released daemon session " + leaseId);
+    }
+
+    private static void heartbeat(String leaseId, String token) {
+        try {
+            call("/heartbeat?id=" + leaseId + "&token=" + token);
+        } catch (RuntimeException e) {
+            System.err.println("Daemon heartbeat for " + leaseId + " failed: " + e.getMessage());
+        }
+    }
+
+    private static JsonNode call(String path) {
+        URI uri = URI.create("http://localhost:" + ConfigLoader.getDaemonPort() + path);
+        try {
+            java.net.http.HttpResponse<String> response = http.send(
+                    java.net.http.HttpRequest.newBuilder(uri).POST(BodyPublishers.noBody()).build(),
+                    BodyHandlers.ofString());
+            JsonNode body = mapper.readTree(response.body());
+            if (response.statusCode() != 200) {
+                throw new RuntimeException("Browser daemon: " + body.path("error").asText(response.body()));
+            }
+            return body;
+        } catch (IOException e) {
+            throw new RuntimeException(
+                    "Browser daemon not reachable at " + uri + " — start Browser_utils.BrowserDaemon first", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while talking to the browser daemon", e);
+        }
+    }
+
+    /**
+     * A RemoteWebDriver for an existing session. quit() releases the lease; the browser keeps running.
+     */
+    private static class AttachedDriver extends RemoteWebDriver {
+        private final String leaseId;
+        private final String token;
+        private final ScheduledFuture<?> heartbeat;
+        private final Thread releaseOnExit;
+        private boolean released = false;
+
+        AttachedDriver(String leaseId, String token, long ttlSeconds, URL serverUrl, String sessionId,
+                       ImmutableCapabilities caps) {
+            super(); // skips NEW_SESSION
+            this.leaseId = leaseId;
+            this.token = token;
+            this.capabilities = caps;
+            setCommandExecutor(new ExistingSessionExecutor(serverUrl));
+            setSessionId(sessionId);
+
+            long periodMs = Math.max(1000, TimeUnit.SECONDS.toMillis(ttlSeconds) / 3);
+            this.heartbeat = heartbeats.scheduleAtFixedRate(
+                    () -> DaemonClient.heartbeat(leaseId, token), periodMs, periodMs, TimeUnit.MILLISECONDS);
+            this.releaseOnExit = new Thread(this::releaseLease, "daemon-release-" + leaseId);
+            Runtime.getRuntime().addShutdownHook(releaseOnExit);
+        }
+
+        @Override
+        public void quit() {
+            try {
+                Runtime.getRuntime().removeShutdownHook(releaseOnExit);
+            } catch (IllegalStateException ignored) {
+                // Already shutting down; the hook releases
+            }
+            releaseLease();
+        }
+
+        private synchronized void releaseLease() {
+            if (!released) {
+                released = true;
+                heartbeat.cancel(false);
+                try {
+                    release(leaseId, token);
+                } catch (RuntimeException e) {
+                    // e.g. the lease expired during a long pause — the daemon has freed it already
+                    System.err.println("Could not release daemon session " + leaseId + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /** Sends W3C commands straight to the driver server that already hosts the session. */
+    private static class ExistingSessionExecutor implements CommandExecutor {
+        private final W3CHttpCommandCodec commandCodec = new W3CHttpCommandCodec();
+        private final W3CHttpResponseCodec responseCodec = new W3CHttpResponseCodec();
+        private final HttpClient client;
+
+        ExistingSessionExecutor(URL serverUrl) {
+            this.client = HttpClient.Factory.createDefault()
+                    .createClient(ClientConfig.defaultConfig().baseUrl(serverUrl));
+        }
+
+        @Override
+        public Response execute(Command command) throws IOException {
+            HttpRequest request = commandCodec.encode(command);
+            HttpResponse response = client.execute(request);
+            Response decoded = responseCodec.decode(response);
+            if (decoded.getSessionId() == null && command.getSessionId() != null) {
+                decoded.setSessionId(command.getSessionId().toString());
+            }
+            return decoded;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 // DriverFactory.java - Creates a configured WebDriver for the requested browser
 package Browser_utils;
 
+import config.ConfigLoader;
 import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.PageLoadStrategy;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -10,67 +13,207 @@ import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 
+import java.nio.file.Path;
 import java.time.Duration;
 
 public class DriverFactory {
 
     public static WebDriver createDriver(String browser) {
+        // With BiDi on, waits can block on page events and URL/title reads come from them
+        WebDriver driver = PageEvents.decorate(createSession(browser.toLowerCase()));
+        // "Locator_Profiling": true times every lookup; a no-op otherwise
+        return LocatorProfiler.decorate(driver);
+    }
+
+    private static WebDriver createSession(String browser) {
+        // "Driver_Mode": "daemon" borrows an already running session from BrowserDaemon
+        if ("daemon".equalsIgnoreCase(ConfigLoader.getDriverMode())) {
+            return DaemonClient.attach(browser);
+        }
+        // "Driver_Mode": "grid" asks a Selenium Grid for a session on one of its nodes
+        if (GridClient.isEnabled()) {
+            return GridClient.createDriver(browser);
+        }
+
+        // Clean up chromedriver/chrome left running by a crashed earlier run
+        OrphanReaper.reapOnce();
+        return createLocalDriver(browser);
+    }
+
+    /**
+     * Resolves (and downloads if needed) the driver binary for a browser, and starts the
+     * shared driver service when one is used, so a later createDriver() only launches
+     * the browser. In grid mode it makes sure the Grid is up; nothing to do in daemon mode.
+     */
+    public static void prepareDriver(String browser) {
         browser = browser.toLowerCase();
+        if ("daemon".equalsIgnoreCase(ConfigLoader.getDriverMode())) {
+            return;
+        }
+        if (GridClient.isEnabled()) {
+            GridClient.ensureGrid();
+            return;
+        }
+
+        boolean shared = ConfigLoader.isSharedDriverService();
+        switch (browser) {
+            case "chrome":
+                if (shared) DriverServices.chrome(); else WebDriverManager.chromedriver().setup();
+                break;
+            case "firefox":
+                WebDriverManager.firefoxdriver().setup();
+                break;
+            case "edge":
+                if (shared) DriverServices.edge(); else WebDriverManager.edgedriver().setup();
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported browser: " + browser);
+        }
+    }
+
+    /** Launches a browser on this machine, ignoring Driver_Mode. */
+    static WebDriver createLocalDriver(String browser) {
+        if (!ProfileTemplate.isEnabled()) {
+            return createDriver(browser, null);
+        }
+        Path clone = ProfileTemplate.cloneForSession(browser);
+        return ProfileTemplate.deleteOnQuit(createDriver(browser, clone), clone);
+    }
+
+    /**
+     * @param profile user-data dir to run on, or null for a throwaway private profile
+     */
+    static WebDriver createDriver(String browser, Path profile) {
         WebDriver driver;
 
         switch (browser) {
             case "chrome":
-                WebDriverManager.chromedriver().setup();
-                ChromeOptions chromeOptions = new ChromeOptions();
-                chromeOptions.addArguments("--incognito");
-                chromeOptions.addArguments("--disable-notifications");
-                chromeOptions.addArguments("--disable-infobars");
-                chromeOptions.addArguments("--disable-extensions");
-                chromeOptions.addArguments("--disable-features=VizDisplayCompositor");
-                chromeOptions.setExperimentalOption("excludeSwitches",
-                        new String[]{"enable-automation", "load-extension"});
-                chromeOptions.setExperimentalOption("prefs",
-                        java.util.Map.of(
-                                "credentials_enable_service", false,
-                                "profile.password_manager_enabled", false,
-                                "profile.default_content_setting_values.notifications", 2
-                        ));
-                driver = new ChromeDriver(chromeOptions);
+                ChromeOptions chromeOptions = chromeOptions(profile);
+                if (ConfigLoader.isSharedDriverService()) {
+                    driver = new ChromeDriver(DriverServices.chrome(), chromeOptions, DriverServices.clientConfig());
+                } else {
+                    WebDriverManager.chromedriver().setup();
+                    driver = new ChromeDriver(chromeOptions, DriverServices.clientConfig());
+                }
                 break;
 
             case "firefox":
                 WebDriverManager.firefoxdriver().setup();
-                FirefoxOptions firefoxOptions = new FirefoxOptions();
-                firefoxOptions.addArguments("-private");
-                firefoxOptions.addPreference("dom.webnotifications.enabled", false);
-                firefoxOptions.addPreference("signon.rememberSignons", false);
-                firefoxOptions.addPreference("signon.autofillForms", false);
-                driver = new FirefoxDriver(firefoxOptions);
+                // geckodriver runs one session per process, so it is never shared
+                driver = new FirefoxDriver(firefoxOptions(profile), DriverServices.clientConfig());
                 break;
 
             case "edge":
-                WebDriverManager.edgedriver().setup();
-                EdgeOptions edgeOptions = new EdgeOptions();
-                edgeOptions.addArguments("inprivate");
-                edgeOptions.addArguments("--disable-notifications");
-                edgeOptions.addArguments("--disable-extensions");
-                edgeOptions.setExperimentalOption("prefs",
-                        java.util.Map.of(
-                                "credentials_enable_service", false,
-                                "profile.password_manager_enabled", false
-                        ));
-                driver = new EdgeDriver(edgeOptions);
+                EdgeOptions edgeOptions = edgeOptions(profile);
+                if (ConfigLoader.isSharedDriverService()) {
+                    driver = new EdgeDriver(DriverServices.edge(), edgeOptions, DriverServices.clientConfig());
+                } else {
+                    WebDriverManager.edgedriver().setup();
+                    driver = new EdgeDriver(edgeOptions, DriverServices.clientConfig());
+                }
                 break;
 
             default:
                 throw new IllegalArgumentException("Unsupported browser: " + browser);
         }
 
-        // Browser-level setup
+        return configure(driver);
+    }
+
+    /** Session options for a browser, as used locally and requested from a Grid. */
+    static Capabilities options(String browser, Path profile) {
+        switch (browser) {
+            case "chrome":  return chromeOptions(profile);
+            case "firefox": return firefoxOptions(profile);
+            case "edge":    return edgeOptions(profile);
+            default:
+                throw new IllegalArgumentException("Unsupported browser: " + browser);
+        }
+    }
+
+    /** Browser-level setup every new session gets. */
+    static WebDriver configure(WebDriver driver) {
         driver.manage().window().maximize();
-        driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(60));
+        driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(ConfigLoader.getPageLoadTimeoutSeconds()));
         driver.manage().timeouts().scriptTimeout(Duration.ofSeconds(30));
         driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(0));
         return driver;
     }
-}
\ No newline at end of file
+
+    // ─────────────────────────────────────────────────────────
+    // OPTIONS
+    // ─────────────────────────────────────────────────────────
+
+    // "eager" / "none" let get() return before third-party resources finish; Waits fills the gap
+    private static PageLoadStrategy pageLoadStrategy() {
+        PageLoadStrategy strategy = PageLoadStrategy.fromString(ConfigLoader.getPageLoadStrategy().toLowerCase());
+        if (strategy == null) {
+            throw new IllegalArgumentException("Unsupported Page_Load_Strategy: " + ConfigLoader.getPageLoadStrategy());
+        }
+        return strategy;
+    }
+
+    private static ChromeOptions chromeOptions(Path profile) {
+        ChromeOptions chromeOptions = new ChromeOptions();
+        if (profile != null) {
+            chromeOptions.addArguments("--user-data-dir=" + profile);
+        } else {
+            chromeOptions.addArguments("--incognito");
+        }
+        chromeOptions.addArguments("--disable-notifications");
+        chromeOptions.addArguments("--disable-infobars");
+        chromeOptions.addArguments("--disable-extensions");
+        chromeOptions.addArguments("--disable-features=VizDisplayCompositor");
+        chromeOptions.setExperimentalOption("excludeSwitches",
+                new String[]{"enable-automation", "load-extension"});
+        chromeOptions.setExperimentalOption("prefs",
+                java.util.Map.of(
+                        "credentials_enable_service", false,
+                        "profile.password_manager_enabled", false,
+                        "profile.default_content_setting_values.notifications", 2
+                ));
+        chromeOptions.setPageLoadStrategy(pageLoadStrategy());
+        if (ConfigLoader.isBiDiEnabled()) {
+            chromeOptions.enableBiDi();
+        }
+        return chromeOptions;
+    }
+
+    private static FirefoxOptions firefoxOptions(Path profile) {
+        FirefoxOptions firefoxOptions = new FirefoxOptions();
+        if (profile != null) {
+            firefoxOptions.addArguments("-profile", profile.toString());
+        } else {
+            firefoxOptions.addArguments("-private");
+        }
+        firefoxOptions.addPreference("dom.webnotifications.enabled", false);
+        firefoxOptions.addPreference("signon.rememberSignons", false);
+        firefoxOptions.addPreference("signon.autofillForms", false);
+        firefoxOptions.setPageLoadStrategy(pageLoadStrategy());
+        if (ConfigLoader.isBiDiEnabled()) {
+            firefoxOptions.enableBiDi();
+        }
+        return firefoxOptions;
+    }
+
+    private static EdgeOptions edgeOptions(Path profile) {
+        EdgeOptions edgeOptions = new EdgeOptions();
+        if (profile != null) {
+            edgeOptions.addArguments("--user-data-dir=" + profile);
+        } else {
+            edgeOptions.addArguments("inprivate");
+        }
+        edgeOptions.addArguments("--disable-notifications");
+        edgeOptions.addArguments("--disable-extensions");
+        edgeOptions.setExperimentalOption("prefs",
+                java.util.Map.of(
+                        "credentials_enable_service", false,
+                        "profile.password_manager_enabled", false
+                ));
+        edgeOptions.setPageLoadStrategy(pageLoadStrategy());
+        if (ConfigLoader.isBiDiEnabled()) {
+            edgeOptions.enableBiDi();
+        }
+        return edgeOptions;
+    }
+}
@@ -0,0 +1,129 @@
+// DriverLease.java - A browser session borrowed from a bounded pool for one scenario
+package Browser_utils;
+
+import org.openqa.selenium.WebDriver;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * One browser session held by one scenario.
+ *
+ * Acquiring a lease takes a permit from the shared semaphore BEFORE the browser
+ * is launched, so no more than N browsers ever exist at once no matter how many
+ * scenarios are in flight. While the lease is open the driver is bound to the
+ * calling thread, which means DriverManager.getDriver() (and therefore Actions
+ * and every page object) returns this session on that thread.
+ *
+ * Usage:
+ *      try (DriverLease lease = DriverLease.acquire(permits, "chrome")) {
+ *          new ViewProduct(lease.getDriver()).addProductToCart("1");
+ *      }
+ */
+public class DriverLease implements AutoCloseable {
+
+    private final Semaphore permits;
+    private final String browser;
+    private WebDriver rawDriver;  // as launched — the key BrowserAdmission knows it by
+    private WebDriver driver;     // watched by SessionWatchdog — what callers get
+    private boolean closed = false;
+    private long queueWaitMs;     // time spent waiting for a permit and, in grid mode, a node slot
+
+    private DriverLease(Semaphore permits, String browser) {
+        this.permits = permits;
+        this.browser = browser;
+    }
+
+    /**
+     * Blocks until a browser permit is free and BrowserAdmission says the host has
+     * room, then launches a session. The permit is returned immediately if the launch fails.
+     */
+    public static DriverLease acquire(Semaphore permits, String browser) throws InterruptedException {
+        long waitStart = System.nanoTime();
+        permits.acquire();
+        long permitWaitMs = (System.nanoTime() - waitStart) / 1_000_000;
+        try {
+            DriverLease lease = new DriverLease(permits, browser);
+            lease.launch();
+            lease.queueWaitMs = permitWaitMs + (GridClient.isEnabled() ? GridClient.lastQueueWaitMs() : 0);
+            DriverManager.bindToCurrentThread(lease);
+            return lease;
+        } catch (InterruptedException e) {
+            permits.release();
+            throw e;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw new RuntimeException("Failed to lease WebDriver for browser: " + browser, e);
+        }
+    }
+
+    public WebDriver getDriver() {
+        return driver;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    /** How long acquire() waited before a session could be started, in ms. */
+    public long getQueueWaitMs() {
+        return queueWaitMs;
+    }
+
+    /**
+     * Replaces the browser behind this lease if SessionRecycler says it has grown too
+     * large. The permit is kept, so the swap never waits on other scenarios.
+     */
+    public void recycleIfNeeded() {
+        if (closed || !SessionRecycler.shouldRecycle(driver, BrowserAdmission.processRoots(rawDriver))) {
+            return;
+        }
+        SessionRecycler.SessionState state = SessionRecycler.captureState(driver);
+        quitCurrent();
+        try {
+            launch();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while recycling " + browser + " session", e);
+        }
+        SessionRecycler.restoreState(driver, state);
+    }
+
+    /**
+     * Quits the browser and hands the permit back. Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        DriverManager.unbindFromCurrentThread();
+        try {
+            quitCurrent();
+        } finally {
+            permits.release();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    private void launch() throws InterruptedException {
+        rawDriver = BrowserAdmission.createDriver(browser);
+        // A hung session is killed by the watchdog; the scenario fails and the next lease gets a fresh browser
+        driver = SessionWatchdog.watch(rawDriver, BrowserAdmission.processRoots(rawDriver), aborted -> {});
+    }
+
+    private void quitCurrent() {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            System.err.println("Error while quitting leased driver: " + e.getMessage());
+        } finally {
+            SessionRecycler.forget(driver);
+            UserContextDriver.forget(driver);
+            BrowserAdmission.release(rawDriver);
+        }
+    }
+}
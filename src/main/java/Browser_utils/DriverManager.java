@@ -3,14 +3,37 @@ package Browser_utils;
 
 import config.ConfigLoader;
 import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 public class DriverManager {
 
-    private static WebDriver driver;
+    private static volatile WebDriver driver;
+    private static Set<Long> driverProcessRoots = Set.of();
+
+    // What getDriver() hands out for the shared session: always forwards to the current
+    // driver, so BaseTest.driver and page objects survive a watchdog replacement
+    private static volatile WebDriver handle;
+    private static Class<?> handleType;
+
+    // Set when SessionWatchdog killed the shared driver; the next call then starts a new one
+    private static volatile boolean replaceAborted = false;
+
+    // Last URL the shared session was seen on, reopened in a replacement session
+    private static volatile String lastUrl;
+
+    // Drivers leased by SuiteOrchestrator workers. A thread with a lease sees its own
+    // browser from getDriver(), so page objects work unchanged on worker threads.
+    private static final ThreadLocal<DriverLease> currentLease = new ThreadLocal<>();
 
     private DriverManager() {} // prevent instantiation
 
-    public static void initializeDriver() {
+    public static synchronized void initializeDriver() {
         if (driver != null) {
             return; // Already initialized
         }
@@ -21,30 +44,168 @@ public class DriverManager {
         }
 
         try {
-            driver = DriverFactory.createDriver(browser);
+            WebDriver created = DriverFactory.createDriver(browser);
+            Set<Long> roots = BrowserProcesses.sessionRoots(created);
+
+            driver = SessionWatchdog.watch(created, roots, DriverManager::onSessionAborted);
+            driverProcessRoots = Set.copyOf(roots);
+            replaceAborted = false;
+            if (handle == null || handleType != driver.getClass()) {
+                // A different browser has different interfaces; a recycle keeps the handle
+                handle = newHandle(driver);
+                handleType = driver.getClass();
+            }
         } catch (Exception e) {
             throw new RuntimeException(
                     "Failed to initialize WebDriver for browser: " + browser, e);
         }
     }
 
+    /**
+     * The calling thread's leased driver, or the shared driver. The shared one is a
+     * stable handle: if the watchdog aborts the session, the next command through it
+     * starts a replacement on the last URL (cookies and login are lost).
+     */
     public static WebDriver getDriver() {
-        if (driver == null) {
-            throw new IllegalStateException(
-                    "Driver not initialized. Call initializeDriver() first.");
+        DriverLease lease = currentLease.get();
+        if (lease != null) {
+            return lease.getDriver();
+        }
+        current();
+        return handle;
+    }
+
+    // The live shared session, replacing an aborted one first
+    private static WebDriver current() {
+        WebDriver live = driver;
+        if (live != null) {
+            return live;
+        }
+        synchronized (DriverManager.class) {
+            if (driver == null && replaceAborted) {
+                System.out.println("Starting a replacement driver after the watchdog aborted the last one");
+                initializeDriver();
+                if (lastUrl != null) {
+                    System.out.println("Reopening " + lastUrl + " in the replacement session");
+                    driver.get(lastUrl);
+                }
+            }
+            if (driver == null) {
+                throw new IllegalStateException(
+                        "Driver not initialized. Call initializeDriver() first.");
+            }
+            return driver;
+        }
+    }
+
+    private static WebDriver newHandle(WebDriver first) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        for (Class<?> type = first.getClass(); type != null; type = type.getSuperclass()) {
+            collectInterfaces(type, interfaces);
+        }
+        interfaces.add(WrapsDriver.class);
+        return (WebDriver) Proxy.newProxyInstance(DriverManager.class.getClassLoader(),
+                interfaces.toArray(new Class<?>[0]), (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getWrappedDriver": return current();
+                        case "equals":           return proxy == args[0];
+                        case "hashCode":         return System.identityHashCode(proxy);
+                        default:                 break;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(current(), args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    if ("get".equals(method.getName()) && args != null && args.length == 1) {
+                        lastUrl = String.valueOf(args[0]);
+                    } else if ("getCurrentUrl".equals(method.getName())) {
+                        lastUrl = (String) result;
+                    }
+                    return result;
+                });
+    }
+
+    private static void collectInterfaces(Class<?> type, Set<Class<?>> into) {
+        for (Class<?> iface : type.getInterfaces()) {
+            if (Modifier.isPublic(iface.getModifiers()) && into.add(iface)) {
+                collectInterfaces(iface, into);
+            }
+        }
+    }
+
+    /**
+     * Hands out an isolated user context (own cookies and storage) inside the current
+     * browser process. Page objects can use it like any WebDriver; quit() on it closes
+     * only that context. Requires "BiDi": true in info.json.
+     */
+    public static WebDriver openIsolatedContext() {
+        return UserContextDriver.open(getDriver());
+    }
+
+    /**
+     * Call between independent scenarios. Samples the current session's memory and, once
+     * it crosses the SessionRecycler limits, swaps in a fresh browser carrying the same
+     * cookies and URL. The shared handle follows the swap; a leased driver must be fetched
+     * again afterwards.
+     *
+     * Only cookies and the URL survive, so never call it between dependent steps of one
+     * flow (e.g. TestNG methods chained by dependsOnMethods): typed form state is lost.
+     */
+    public static void scenarioFinished() {
+        DriverLease lease = currentLease.get();
+        if (lease != null) {
+            lease.recycleIfNeeded();
+            return;
+        }
+
+        synchronized (DriverManager.class) {
+            if (driver == null || !SessionRecycler.shouldRecycle(driver, driverProcessRoots)) {
+                return;
+            }
+            SessionRecycler.SessionState state = SessionRecycler.captureState(driver);
+            quitDriver();
+            initializeDriver();
+            SessionRecycler.restoreState(driver, state);
+        }
+    }
+
+    /** Binds a lease to the calling thread. Used by DriverLease only. */
+    static void bindToCurrentThread(DriverLease lease) {
+        currentLease.set(lease);
+    }
+
+    /** Removes the calling thread's lease, if any. */
+    static void unbindFromCurrentThread() {
+        currentLease.remove();
+    }
+
+    // Watchdog callback: the session's processes are already dead, just drop the reference.
+    // The handle picks up a replacement on its next command.
+    private static synchronized void onSessionAborted(WebDriver aborted) {
+        if (driver == aborted) {
+            SessionRecycler.forget(driver);
+            UserContextDriver.forget(handle);
+            driver = null;
+            driverProcessRoots = Set.of();
+            replaceAborted = true;
         }
-        return driver;
     }
 
-    public static void quitDriver() {
+    public static synchronized void quitDriver() {
         if (driver != null) {
             try {
                 driver.quit();
             } catch (Exception e) {
                 System.err.println("Error while quitting driver: " + e.getMessage());
             } finally {
+                SessionRecycler.forget(driver);
+                UserContextDriver.forget(handle);
                 driver = null;
+                driverProcessRoots = Set.of();
+                replaceAborted = false;
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,219 @@
+// DriverServices.java - Shared driver server processes and the HTTP client settings used to talk to them
+package Browser_utils;
+
+import config.ConfigLoader;
+import io.github.bonigarcia.wdm.WebDriverManager;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.chrome.ChromeDriverService;
+import org.openqa.selenium.edge.EdgeDriverService;
+import org.openqa.selenium.net.PortProber;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.http.ClientConfig;
+import org.openqa.selenium.remote.service.DriverService;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Every WebDriver command is an HTTP request from this JVM to the driver binary.
+ * By default Selenium starts a new chromedriver / msedgedriver for every session
+ * and stops it again on quit().
+ *
+ * chromedriver and msedgedriver can host many sessions, so with
+ * "Shared_Driver_Service": true (the default) one process per browser type is
+ * started on first use and kept until the JVM exits. quit() on a session ends
+ * only that session. geckodriver allows one session per process, so Firefox
+ * still gets its own service.
+ *
+ * clientConfig() holds the command transport settings: connect and read
+ * timeouts from info.json, and plain HTTP/1.1 so no h2c upgrade is attempted
+ * against the driver. The JDK client Selenium uses keeps connections alive,
+ * so a session reuses one socket for all of its commands. The read timeout is
+ * kept below Command_Budget_Seconds, so a slow command fails on its own before
+ * SessionWatchdog has to kill the session.
+ *
+ * A hung session on a shared service is ended with abortSession(): SessionWatchdog
+ * kills only that session's browser, and the session is then deleted on the service,
+ * which keeps running for everyone else.
+ */
+public class DriverServices {
+
+    private static final Map<String, SharedService> shared = new HashMap<>();
+    private static final Set<Long> sharedPids = new HashSet<>();
+
+    private DriverServices() {}
+
+    public static ClientConfig clientConfig() {
+        return ClientConfig.defaultConfig()
+                .connectionTimeout(Duration.ofSeconds(ConfigLoader.getHttpConnectTimeoutSeconds()))
+                .readTimeout(Duration.ofSeconds(readTimeoutSeconds()))
+                .version("HTTP_1_1");
+    }
+
+    private static int readTimeoutSeconds() {
+        int configured = ConfigLoader.getHttpReadTimeoutSeconds();
+        int budget = ConfigLoader.getCommandBudgetSeconds();
+        if (configured < budget) {
+            return configured;
+        }
+        int clamped = Math.max(1, budget - 5);
+        System.err.println("Http_Read_Timeout_Seconds (" + configured + ") is not below Command_Budget_Seconds ("
+                + budget + ") — using " + clamped);
+        return clamped;
+    }
+
+    /**
+     * Deletes a session on the shared service hosting it, without stopping the service.
+     * @return false if the session doesn't run on a shared service (the caller quits it instead)
+     */
+    static boolean abortSession(WebDriver driver) {
+        while (driver instanceof WrapsDriver) {
+            driver = ((WrapsDriver) driver).getWrappedDriver();
+        }
+        if (!(driver instanceof RemoteWebDriver)
+                || !(((RemoteWebDriver) driver).getCommandExecutor() instanceof HttpCommandExecutor)
+                || ((RemoteWebDriver) driver).getSessionId() == null) {
+            return false;
+        }
+        RemoteWebDriver remote = (RemoteWebDriver) driver;
+        String server = ((HttpCommandExecutor) remote.getCommandExecutor()).getAddressOfRemoteServer().toString();
+        synchronized (DriverServices.class) {
+            if (shared.values().stream().noneMatch(s -> ((DriverService) s).getUrl().toString().equals(server))) {
+                return false;
+            }
+        }
+
+        URI uri = URI.create(server.replaceAll("/$", "") + "/session/" + remote.getSessionId());
+        try {
+            HttpResponse<Void> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(uri).DELETE().timeout(Duration.ofSeconds(10)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                System.err.println("[watchdog] DELETE " + uri + " returned " + response.statusCode());
+            }
+        } catch (IOException e) {
+            System.err.println("[watchdog] could not delete session " + remote.getSessionId() + ": " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return true;
+    }
+
+    public static synchronized ChromeDriverService chrome() {
+        SharedService service = shared.get("chrome");
+        if (service == null) {
+            WebDriverManager wdm = WebDriverManager.chromedriver();
+            wdm.setup();
+            File executable = new File(wdm.getDownloadedDriverPath());
+            int port = PortProber.findFreePort();
+            try {
+                service = start("chrome", new SharedChromeService(executable, port), port);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to start shared chromedriver", e);
+            }
+        }
+        return (ChromeDriverService) service;
+    }
+
+    public static synchronized EdgeDriverService edge() {
+        SharedService service = shared.get("edge");
+        if (service == null) {
+            WebDriverManager wdm = WebDriverManager.edgedriver();
+            wdm.setup();
+            File executable = new File(wdm.getDownloadedDriverPath());
+            int port = PortProber.findFreePort();
+            try {
+                service = start("edge", new SharedEdgeService(executable, port), port);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to start shared msedgedriver", e);
+            }
+        }
+        return (EdgeDriverService) service;
+    }
+
+    /**
+     * PIDs of the shared driver processes. BrowserProcesses looks through them so a
+     * session's process roots are its own browser, not the driver every session uses.
+     */
+    static synchronized Set<Long> sharedPids() {
+        return Set.copyOf(sharedPids);
+    }
+
+    /** Marks another process that hosts many sessions, e.g. a local standalone Grid. */
+    static synchronized void registerShared(long pid) {
+        sharedPids.add(pid);
+    }
+
+    // Starts the service and records its process, found by the port it was given
+    private static SharedService start(String browser, SharedService service, int port) throws IOException {
+        ((DriverService) service).start();
+        BrowserProcesses.childWithArgument("--port=" + port).ifPresent(p -> sharedPids.add(p.pid()));
+
+        if (shared.isEmpty()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(DriverServices::stopAll, "driver-services-shutdown"));
+        }
+        shared.put(browser, service);
+        return service;
+    }
+
+    private static synchronized void stopAll() {
+        shared.values().forEach(SharedService::stopService);
+        shared.clear();
+        sharedPids.clear();
+    }
+
+    /**
+     * The driver classes call stop() on their service when a session quits.
+     * A shared service ignores that; only stopService() ends the process.
+     */
+    private interface SharedService {
+        void stopService();
+    }
+
+    private static class SharedChromeService extends ChromeDriverService implements SharedService {
+
+        SharedChromeService(File executable, int port) throws IOException {
+            super(executable, port, DEFAULT_TIMEOUT, List.of("--port=" + port), Map.of());
+        }
+
+        @Override
+        public void stop() {
+            // Other sessions still use this process
+        }
+
+        @Override
+        public void stopService() {
+            super.stop();
+        }
+    }
+
+    private static class SharedEdgeService extends EdgeDriverService implements SharedService {
+
+        SharedEdgeService(File executable, int port) throws IOException {
+            super(executable, port, DEFAULT_TIMEOUT, List.of("--port=" + port), Map.of());
+        }
+
+        @Override
+        public void stop() {
+            // Other sessions still use this process
+        }
+
+        @Override
+        public void stopService() {
+            super.stop();
+        }
+    }
+}
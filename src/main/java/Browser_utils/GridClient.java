@@ -0,0 +1,328 @@
+// GridClient.java - Creates sessions on a Selenium Grid, waiting for a free node slot first
+package Browser_utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.ConfigLoader;
+import org.openqa.selenium.Capabilities;
+import org.openqa.selenium.SessionNotCreatedException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.remote.Augmenter;
+import org.openqa.selenium.remote.RemoteWebDriver;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * "Driver_Mode": "grid" — sessions come from the Selenium Grid at "Grid_Url".
+ *
+ *   - Routing is by capabilities: each browser asks for the same options it would use
+ *     locally, and the Grid places it on a node whose stereotype matches.
+ *   - Before asking, createDriver() waits until some UP node has a free slot for that
+ *     browser (read from the Grid's GraphQL endpoint, minus sessions this JVM is still
+ *     starting). The request then never sits in the Grid's own session queue, and the
+ *     time spent waiting is reported as the session's queue wait. The wait fails at
+ *     once when no UP node offers the browser, and after "Grid_Slot_Timeout_Seconds"
+ *     otherwise.
+ *   - capacity() is the number of sessions the Grid can run at once for a browser.
+ *     SuiteOrchestrator sizes its per-browser permits with it in grid mode.
+ *   - With "Grid_Standalone": true and nothing answering at Grid_Url, a standalone
+ *     Grid is started from "Grid_Server_Jar" and stopped when the JVM exits.
+ *
+ * If the GraphQL endpoint can't be read, sessions are requested right away and the
+ * Grid queues them as usual.
+ */
+public class GridClient {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private static final String NODES_QUERY =
+            "{ nodesInfo { nodes { id status maxSession sessionCount stereotypes sessions { capabilities } } } }";
+    private static final long SLOT_POLL_MS = 500;
+    private static final long STARTUP_TIMEOUT_MS = 60_000;
+
+    private static final Object monitor = new Object();
+    // browserName → sessions this JVM has asked for that the Grid may not report yet
+    private static final Map<String, Integer> starting = new HashMap<>();
+    private static final ThreadLocal<Long> lastQueueWaitMs = ThreadLocal.withInitial(() -> 0L);
+
+    private static volatile boolean gridReady = false;
+
+    private GridClient() {}
+
+    public static boolean isEnabled() {
+        return "grid".equalsIgnoreCase(ConfigLoader.getDriverMode());
+    }
+
+    public static WebDriver createDriver(String browser) {
+        ensureGrid();
+        Capabilities options = DriverFactory.options(browser, null);
+        String browserName = options.getBrowserName();
+
+        long waitStart = System.nanoTime();
+        try {
+            awaitFreeSlot(browserName);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a Grid slot for " + browser, e);
+        }
+        lastQueueWaitMs.set((System.nanoTime() - waitStart) / 1_000_000);
+
+        try {
+            WebDriver driver = RemoteWebDriver.builder()
+                    .oneOf(options)
+                    .address(ConfigLoader.getGridUrl())
+                    .config(DriverServices.clientConfig())
+                    .build();
+            if (ConfigLoader.isBiDiEnabled()) {
+                // RemoteWebDriver only exposes BiDi once augmented
+                driver = new Augmenter().augment(driver);
+            }
+            return DriverFactory.configure(driver);
+        } finally {
+            synchronized (monitor) {
+                starting.merge(browserName, -1, Integer::sum);
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Milliseconds the last createDriver() on this thread waited for a free Grid slot.
+     */
+    public static long lastQueueWaitMs() {
+        return lastQueueWaitMs.get();
+    }
+
+    /**
+     * Sessions the Grid can run at once for a browser, over all UP nodes.
+     * 0 if the Grid can't tell (SuiteOrchestrator then keeps Max_Browsers).
+     */
+    public static int capacity(String browser) {
+        ensureGrid();
+        String browserName = DriverFactory.options(browser.toLowerCase(), null).getBrowserName();
+        JsonNode nodes = nodes();
+        if (nodes == null) {
+            return 0;
+        }
+        int capacity = 0;
+        for (JsonNode node : nodes) {
+            if ("UP".equals(node.path("status").asText())) {
+                capacity += Math.min(node.path("maxSession").asInt(), slotsFor(node, browserName));
+            }
+        }
+        return capacity;
+    }
+
+    /**
+     * Makes sure a Grid answers at Grid_Url, starting a standalone one if configured.
+     */
+    public static synchronized void ensureGrid() {
+        if (gridReady) {
+            return;
+        }
+        if (isReady()) {
+            gridReady = true;
+            return;
+        }
+        if (!ConfigLoader.isGridStandalone()) {
+            throw new IllegalStateException("No Selenium Grid is ready at " + ConfigLoader.getGridUrl()
+                    + " — start one or set \"Grid_Standalone\": true in info.json.");
+        }
+        startStandalone();
+        gridReady = true;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // SLOTS
+    // ─────────────────────────────────────────────────────────
+
+    // The GraphQL poll runs outside the monitor, so a slow Grid never blocks other
+    // threads from reserving a slot or finishing a session start
+    private static void awaitFreeSlot(String browserName) throws InterruptedException {
+        long timeoutMs = ConfigLoader.getGridSlotTimeoutSeconds() * 1000L;
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        boolean announced = false;
+        while (true) {
+            JsonNode nodes = nodes();
+            if (nodes != null && !offers(nodes, browserName)) {
+                throw new SessionNotCreatedException("No UP node on the Grid at " + ConfigLoader.getGridUrl()
+                        + " offers " + browserName + " — check the nodes' stereotypes.");
+            }
+            int free = nodes == null ? Integer.MAX_VALUE : freeSlots(nodes, browserName);
+            synchronized (monitor) {
+                int pending = starting.getOrDefault(browserName, 0);
+                if (free > pending) {
+                    starting.put(browserName, pending + 1);
+                    return;
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    throw new SessionNotCreatedException("No free " + browserName + " slot on the Grid at "
+                            + ConfigLoader.getGridUrl() + " after " + timeoutMs / 1000
+                            + " s (Grid_Slot_Timeout_Seconds).");
+                }
+                if (!announced) {
+                    System.out.println("  [grid] " + browserName + " waiting for a free node slot");
+                    announced = true;
+                }
+                monitor.wait(Math.min(SLOT_POLL_MS, remaining));
+            }
+        }
+    }
+
+    // Whether any UP node has a stereotype for the browser, busy or not
+    private static boolean offers(JsonNode nodes, String browserName) {
+        for (JsonNode node : nodes) {
+            if ("UP".equals(node.path("status").asText()) && slotsFor(node, browserName) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Free slots for one browser, summed over UP nodes
+    private static int freeSlots(JsonNode nodes, String browserName) {
+        int free = 0;
+        for (JsonNode node : nodes) {
+            if (!"UP".equals(node.path("status").asText())) {
+                continue;
+            }
+            int nodeFree = node.path("maxSession").asInt() - node.path("sessionCount").asInt();
+            int running = 0;
+            for (JsonNode session : node.path("sessions")) {
+                if (browserName.equalsIgnoreCase(readJson(session.path("capabilities").asText())
+                        .path("browserName").asText())) {
+                    running++;
+                }
+            }
+            free += Math.max(0, Math.min(nodeFree, slotsFor(node, browserName) - running));
+        }
+        return free;
+    }
+
+    // Slots a node offers for one browser, from its "stereotypes" JSON string
+    private static int slotsFor(JsonNode node, String browserName) {
+        int slots = 0;
+        for (JsonNode stereotype : readJson(node.path("stereotypes").asText())) {
+            if (browserName.equalsIgnoreCase(stereotype.path("stereotype").path("browserName").asText())) {
+                slots += stereotype.path("slots").asInt();
+            }
+        }
+        return slots;
+    }
+
+    // The Grid's node list, or null if GraphQL isn't available
+    private static JsonNode nodes() {
+        try {
+            String body = mapper.writeValueAsString(Map.of("query", NODES_QUERY));
+            HttpRequest request = HttpRequest.newBuilder(gridUri("/graphql"))
+                    .timeout(Duration.ofSeconds(5))
+                    .header("Content-Type", "application/json")
+                    .POST(BodyPublishers.ofString(body))
+                    .build();
+            JsonNode nodes = mapper.readTree(http.send(request, BodyHandlers.ofString()).body())
+                    .path("data").path("nodesInfo").path("nodes");
+            return nodes.isArray() ? nodes : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // STANDALONE GRID
+    // ─────────────────────────────────────────────────────────
+
+    private static boolean isReady() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(gridUri("/status"))
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            return mapper.readTree(http.send(request, BodyHandlers.ofString()).body())
+                    .path("value").path("ready").asBoolean(false);
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void startStandalone() {
+        String jar = ConfigLoader.getGridServerJar();
+        if (jar.isEmpty() || !new File(jar).isFile()) {
+            throw new IllegalStateException(
+                    "\"Grid_Server_Jar\" must point to a selenium-server jar to start a standalone Grid: " + jar);
+        }
+        int port = gridUri("/").getPort();
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        Path log = Paths.get("target", "grid-standalone.log");
+
+        Process grid;
+        try {
+            log.getParent().toFile().mkdirs();
+            grid = new ProcessBuilder(java.toString(), "-jar", jar, "standalone",
+                    "--port", String.valueOf(port == -1 ? 4444 : port),
+                    "--selenium-manager", "true")
+                    .redirectErrorStream(true)
+                    .redirectOutput(log.toFile())
+                    .start();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to start standalone Grid from " + jar, e);
+        }
+        // Browsers the Grid launches are its descendants; let BrowserProcesses see through it
+        DriverServices.registerShared(grid.pid());
+        Runtime.getRuntime().addShutdownHook(new Thread(grid::destroy, "grid-standalone-shutdown"));
+
+        long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MS;
+        while (!isReady()) {
+            if (!grid.isAlive()) {
+                throw new IllegalStateException("Standalone Grid exited during startup — see " + log);
+            }
+            if (System.currentTimeMillis() > deadline) {
+                grid.destroy();
+                throw new IllegalStateException("Standalone Grid not ready after "
+                        + STARTUP_TIMEOUT_MS / 1000 + " s — see " + log);
+            }
+            try {
+                Thread.sleep(SLOT_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while starting standalone Grid", e);
+            }
+        }
+        System.out.println("Started standalone Selenium Grid at " + ConfigLoader.getGridUrl());
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    private static URI gridUri(String path) {
+        String base = ConfigLoader.getGridUrl();
+        return URI.create(base.endsWith("/") ? base.substring(0, base.length() - 1) + path : base + path);
+    }
+
+    private static JsonNode readJson(String json) {
+        try {
+            return mapper.readTree(json);
+        } catch (IOException e) {
+            return mapper.createArrayNode();
+        }
+    }
+}
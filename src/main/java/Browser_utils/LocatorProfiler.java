@@ -0,0 +1,232 @@
+// LocatorProfiler.java - Times every locator the suite uses and suggests cheaper equivalents
+package Browser_utils;
+
+import config.ConfigLoader;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.decorators.WebDriverDecorator;
+import utils.LocatorQuery;
+
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * "Locator_Profiling": true — records every driver.findElement(s) made by Actions
+ * and the page objects, and prints a cost ranking at the end of the run.
+ *
+ *   - Round trip: wall time of each lookup, averaged per locator.
+ *   - In-page cost: the first time a locator finds something, the same
+ *     query is re-run 25 times inside the browser (document.evaluate for XPath,
+ *     querySelectorAll otherwise) and timed with performance.now(). This is the part
+ *     a cheaper locator can save; whole-document text() scans are the usual top.
+ *   - Suggestion: for XPath, link-text and other non-CSS locators, the same script
+ *     derives a CSS selector for the nodes found — [data-qa] or #id if the node has
+ *     one, else a tag.class path scoped under the nearest ancestor with data-qa, id or
+ *     form[action]. A suggestion is only kept if querySelectorAll returns exactly the
+ *     same nodes, in the same order, as the original locator.
+ *
+ * Lookups scoped to an element (element.findElement) are counted but not analysed.
+ * Profiling costs an extra script per new locator, so it is off by default.
+ */
+public class LocatorProfiler {
+
+    /** Everything known about one locator. */
+    public static class Entry {
+        public final String locator;
+        final String kind;
+        final String expr;
+        long calls;
+        long totalNanos;
+        Double inPageMicros;     // per evaluation, null until analysed
+        String page;             // path it was analysed on
+        String suggestion;       // verified equivalent CSS, or null
+
+        Entry(String locator, String kind, String expr) {
+            this.locator = locator;
+            this.kind = kind;
+            this.expr = expr;
+        }
+
+        public double meanRoundTripMs() {
+            return calls == 0 ? 0 : totalNanos / 1e6 / calls;
+        }
+    }
+
+    private static final String ANALYSE_SCRIPT = LocatorQuery.FUNCTION +
+            "var kind = arguments[0], expr = arguments[1], runs = 25;" +
+            "var found = query(kind, expr);" +
+            "var t0 = performance.now();" +
+            "for (var i = 0; i < runs; i++) query(kind, expr);" +
+            "var micros = (performance.now() - t0) * 1000 / runs;" +
+            "if (found.length === 0) return {micros: micros, found: 0};" +
+            "function sameNodes(sel) {" +
+            "  var r; try { r = document.querySelectorAll(sel); } catch (e) { return false; }" +
+            "  if (r.length !== found.length) return false;" +
+            "  for (var i = 0; i < r.length; i++) if (r[i] !== found[i]) return false;" +
+            "  return true;" +
+            "}" +
+            "function attr(v) { return '\"' + String(v).replace(/[\"\\\\]/g, '\\\\$&') + '\"'; }" +
+            "function anchorOf(n) {" +
+            "  var tag = n.tagName.toLowerCase(), qa = n.getAttribute('data-qa');" +
+            "  if (qa) return tag + '[data-qa=' + attr(qa) + ']';" +
+            "  if (n.id) return '#' + CSS.escape(n.id);" +
+            "  if (tag === 'form' && n.getAttribute('action')) return 'form[action=' + attr(n.getAttribute('action')) + ']';" +
+            "  return null;" +
+            "}" +
+            "function seg(n) {" +
+            "  var s = n.tagName.toLowerCase();" +
+            "  var c = typeof n.className === 'string' ? n.className.trim().split(/\\s+/)[0] : '';" +
+            "  return c ? s + '.' + CSS.escape(c) : s;" +
+            "}" +
+            "function suggest() {" +
+            "  var t = found[0], own = anchorOf(t);" +
+            "  if (own && sameNodes(own)) return own;" +
+            "  var chain = [seg(t)];" +
+            "  for (var n = t.parentElement; n && n !== document.documentElement; n = n.parentElement) {" +
+            "    var a = anchorOf(n);" +
+            "    if (a) {" +
+            "      if (sameNodes(a + ' ' + seg(t))) return a + ' ' + seg(t);" +
+            "      if (sameNodes(a + ' > ' + chain.join(' > '))) return a + ' > ' + chain.join(' > ');" +
+            "    }" +
+            "    chain.unshift(seg(n));" +
+            "  }" +
+            "  return null;" +
+            "}" +
+            "return {micros: micros, found: found.length, suggestion: kind === 'css' ? null : suggest()};";
+
+    // By.toString() → entry, in first-use order
+    private static final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    private LocatorProfiler() {}
+
+    /** Wraps the driver to record lookups when "Locator_Profiling" is on; unchanged otherwise. */
+    public static WebDriver decorate(WebDriver driver) {
+        if (!ConfigLoader.isLocatorProfiling()) {
+            return driver;
+        }
+        return new Recorder().decorate(driver);
+    }
+
+    /** Recorded locators, most expensive in-page first (unanalysed last, by round trip). */
+    public static List<Entry> ranking() {
+        List<Entry> ranked;
+        synchronized (entries) {
+            ranked = new ArrayList<>(entries.values());
+        }
+        ranked.sort(Comparator
+                .comparing((Entry e) -> e.inPageMicros == null ? -1 : e.inPageMicros, Comparator.reverseOrder())
+                .thenComparing(Entry::meanRoundTripMs, Comparator.reverseOrder()));
+        return ranked;
+    }
+
+    /** Prints the ranking with suggestions. Does nothing if profiling was off. */
+    public static void report() {
+        List<Entry> ranked = ranking();
+        if (ranked.isEmpty()) {
+            return;
+        }
+        System.out.println("\nLocator cost ranking (" + ranked.size() + " locators)");
+        System.out.printf("  %9s %9s %6s  %s%n", "in-page", "round", "calls", "locator");
+        for (Entry e : ranked) {
+            System.out.printf("  %7s µs %6.1f ms %6d  %s%n",
+                    e.inPageMicros == null ? "-" : String.format("%.1f", e.inPageMicros),
+                    e.meanRoundTripMs(), e.calls, e.locator);
+            if (e.suggestion != null) {
+                System.out.println("      → By.cssSelector(\"" + e.suggestion + "\")  (same nodes on " + e.page + ")");
+            }
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // RECORDING
+    // ─────────────────────────────────────────────────────────
+
+    private static class Recorder extends WebDriverDecorator<WebDriver> {
+
+        @Override
+        public Object call(Decorated<?> target, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (!("findElement".equals(name) || "findElements".equals(name)) || !(args[0] instanceof By)) {
+                return super.call(target, method, args);
+            }
+            By by = (By) args[0];
+            Entry entry = entry(by);
+            boolean onDriver = target.getOriginal() instanceof WebDriver;
+
+            long start = System.nanoTime();
+            Object result = null;
+            try {
+                result = super.call(target, method, args);
+                return result;
+            } finally {
+                long nanos = System.nanoTime() - start;
+                synchronized (entries) {
+                    entry.calls++;
+                    entry.totalNanos += nanos;
+                }
+                boolean found = result != null && !(result instanceof Collection && ((Collection<?>) result).isEmpty());
+                if (onDriver && found) {
+                    analyseOnce(entry, (WebDriver) target.getOriginal());
+                }
+            }
+        }
+    }
+
+    private static Entry entry(By by) {
+        String text = by.toString();
+        synchronized (entries) {
+            return entries.computeIfAbsent(text, t -> {
+                try {
+                    List<String> query = LocatorQuery.of(by);
+                    return new Entry(t, query.get(0), query.get(1));
+                } catch (IllegalArgumentException e) {
+                    // Chained / relative locators are timed but not analysed
+                    return new Entry(t, null, null);
+                }
+            });
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void analyseOnce(Entry entry, WebDriver driver) {
+        // Once per locator, on the first page it finds something on: the URL (a
+        // round trip) is only read for locators not analysed yet
+        synchronized (entries) {
+            if (entry.page != null || entry.kind == null) {
+                return;
+            }
+        }
+        String page;
+        try {
+            page = URI.create(driver.getCurrentUrl()).getPath();
+        } catch (RuntimeException e) {
+            return;
+        }
+        synchronized (entries) {
+            // Another thread may have claimed it while the URL was read
+            if (entry.page != null) {
+                return;
+            }
+            entry.page = page;
+        }
+        try {
+            Map<String, Object> result = (Map<String, Object>) ((JavascriptExecutor) driver)
+                    .executeScript(ANALYSE_SCRIPT, entry.kind, entry.expr);
+            synchronized (entries) {
+                entry.inPageMicros = ((Number) result.get("micros")).doubleValue();
+                entry.suggestion = (String) result.get("suggestion");
+            }
+        } catch (WebDriverException | ClassCastException e) {
+            // Analysis is best effort; the lookup itself already succeeded
+        }
+    }
+}
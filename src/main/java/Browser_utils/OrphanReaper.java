@@ -0,0 +1,92 @@
+// OrphanReaper.java - Kills driver and browser processes left behind by crashed runs
+package Browser_utils;
+
+import config.ConfigLoader;
+import io.github.bonigarcia.wdm.WebDriverManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * When a run crashes, DriverManager.quitDriver never runs and chromedriver / chrome
+ * keep running. Their parent JVM is gone, so the OS re-parents them to init (PID 1)
+ * or to a user-level subreaper such as "systemd --user".
+ *
+ * reapOnce() kills, once per JVM, processes that are provably ours and provably orphaned:
+ *   - driver binaries (chromedriver, geckodriver, msedgedriver) run from the
+ *     WebDriverManager cache
+ *   - automation-launched browsers (--enable-automation / --remote-debugging-port /
+ *     -marionette) running on a profile under target/profiles (see ProfileTemplate);
+ *     a browser on a throwaway temp profile can't be told apart from anyone else's,
+ *     but it goes with its driver's tree
+ * whose parent is PID 1 or systemd, together with everything below them. A process
+ * whose parent can't be read is left alone, as is anything owned by another LIVE
+ * test JVM (it still has that JVM as its parent) and the user's own browsers.
+ *
+ * Disable with "Reap_Orphans": false in info.json.
+ */
+public class OrphanReaper {
+
+    private static final Set<String> DRIVER_BINARIES = Set.of("chromedriver", "geckodriver", "msedgedriver");
+    private static final Set<String> AUTOMATION_FLAGS = Set.of("--enable-automation", "-marionette", "--marionette");
+    // Chrome runs with enable-automation excluded (DriverFactory), but chromedriver always adds this
+    private static final String DEBUGGING_PORT = "--remote-debugging-port";
+
+    private static final AtomicBoolean done = new AtomicBoolean(false);
+
+    private OrphanReaper() {}
+
+    public static void reapOnce() {
+        if (!ConfigLoader.isReapOrphans() || !done.compareAndSet(false, true)) {
+            return;
+        }
+
+        List<ProcessHandle> orphans = ProcessHandle.allProcesses()
+                .filter(OrphanReaper::isLeftoverAutomationProcess)
+                .filter(OrphanReaper::isOrphaned)
+                .collect(Collectors.toList());
+
+        int killed = 0;
+        for (ProcessHandle orphan : orphans) {
+            List<ProcessHandle> tree = orphan.descendants().collect(Collectors.toList());
+            tree.add(orphan);
+            for (ProcessHandle process : tree) {
+                if (process.destroyForcibly()) killed++;
+            }
+        }
+        if (killed > 0) {
+            System.out.println("Reaped " + killed + " orphaned driver/browser process(es)");
+        }
+    }
+
+    private static boolean isLeftoverAutomationProcess(ProcessHandle process) {
+        String command = process.info().command().orElse("");
+        if (DRIVER_BINARIES.contains(baseName(command))) {
+            return command.startsWith(WebDriverManager.chromedriver().config().getCacheFolder().getAbsolutePath());
+        }
+        String[] args = process.info().arguments().orElse(new String[0]);
+        boolean automation = false;
+        boolean ourProfile = false;
+        String profiles = ProfileTemplate.profilesRoot().toString();
+        for (String arg : args) {
+            automation |= AUTOMATION_FLAGS.contains(arg) || arg.startsWith(DEBUGGING_PORT);
+            ourProfile |= arg.contains(profiles);
+        }
+        return automation && ourProfile;
+    }
+
+    // Unknown parent → not orphaned; only init or systemd as parent counts
+    private static boolean isOrphaned(ProcessHandle process) {
+        return process.parent()
+                .map(parent -> parent.pid() == 1
+                        || parent.info().command().map(OrphanReaper::baseName).orElse("").equals("systemd"))
+                .orElse(false);
+    }
+
+    private static String baseName(String command) {
+        String name = command.substring(command.lastIndexOf('/') + 1);
+        return name.endsWith(".exe") ? name.substring(0, name.length() - 4) : name;
+    }
+}
@@ -0,0 +1,561 @@
+// PageEvents.java - WebDriver BiDi event subscriptions that waits can block on instead of polling
+package Browser_utils;
+
+import config.ConfigLoader;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.bidi.HasBiDi;
+import org.openqa.selenium.bidi.module.BrowsingContextInspector;
+import org.openqa.selenium.bidi.module.LogInspector;
+import org.openqa.selenium.bidi.module.Network;
+import org.openqa.selenium.bidi.module.Script;
+import org.openqa.selenium.bidi.script.ChannelValue;
+import org.openqa.selenium.interactions.Interactive;
+import org.openqa.selenium.support.decorators.Decorated;
+import org.openqa.selenium.support.decorators.WebDriverDecorator;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Navigation, network and log events of one BiDi session, pushed by the browser.
+ *
+ * A wait takes mark() BEFORE the action that triggers it, then blocks in
+ * awaitPageLoad() until a matching event with a later sequence number arrives.
+ * It returns the moment the event does, with no poll interval, and an event that
+ * arrived before the wait started is not missed.
+ *
+ * HTTP responses are recorded only while a watchResponses() handle is open — the
+ * network subscription costs a message per request, ads included — and at most
+ * MAX_RESPONSES of them are kept, apart from the page and error events:
+ *
+ *      try (PageEvents.ResponseWatch watch = events.watchResponses()) {
+ *          submitButton.click();
+ *          PageEvents.Event saved = watch.await(url -> url.contains("/api/"), Duration.ofSeconds(5));
+ *      }
+ *
+ * decorate() also answers getCurrentUrl() and getTitle() from a cache kept by the
+ * events. The URL is updated on each top-level navigation, fragment change and
+ * history.pushState/replaceState, and the title is dropped when one happens, so
+ * repeated reads cost no round trip. Only top-level contexts count; ad iframes
+ * navigating do not touch the cache.
+ *
+ * pageVersion() changes whenever what a query could see may have changed: a
+ * top-level navigation, a DOM mutation in a top-level document (reported by a
+ * preload MutationObserver over a BiDi channel), or a command that acts on the page
+ * (click, sendKeys, clear, submit, Actions, window/frame switches, executeScript).
+ * cached() keeps query results for one version, so repeated reads of an unchanged
+ * page need no round trip.
+ *
+ * The mutation feed is asynchronous: a change the PAGE makes on its own (a timer, an
+ * XHR callback) reaches pageVersion a few milliseconds after it happens, and a
+ * cached() read inside that window still returns the old result. Changes made by
+ * this JVM never have that window — the command itself moves the version once it
+ * returns. A cached() query must only read: executeScript inside it doesn't move
+ * the version, so a query that changed the page would be cached as if it hadn't.
+ *
+ * Everything here is inactive unless "BiDi": true — of() then returns null and
+ * callers keep their polling fallback.
+ */
+public class PageEvents {
+
+    /** One recorded event. */
+    public static class Event {
+        public final long seq;
+        public final String type;      // "load" (DOMContentLoaded), "response" or "js-error"
+        public final String context;
+        public final String url;
+        public final int status;       // HTTP status for "response", else 0
+        public final String text;      // message for "js-error", else null
+
+        Event(long seq, String type, String context, String url, int status, String text) {
+            this.seq = seq;
+            this.type = type;
+            this.context = context;
+            this.url = url;
+            this.status = status;
+            this.text = text;
+        }
+    }
+
+    private static final int MAX_EVENTS = 500;
+    private static final int MAX_RESPONSES = 200;
+
+    // Innermost (undecorated) driver → its events
+    private static final Map<WebDriver, PageEvents> registry = new IdentityHashMap<>();
+
+    private final Object monitor = new Object();
+    private final Deque<Event> events = new ArrayDeque<>();
+    private final Deque<Event> responses = new ArrayDeque<>();
+    private final Set<String> topLevel = new HashSet<>();
+    private final Map<String, String> urls = new HashMap<>();
+    private final Map<String, String> titles = new HashMap<>();
+    private final Map<String, Object> queryCache = new HashMap<>();
+    private final List<AutoCloseable> modules = new ArrayList<>();
+    private long seq = 0;
+    private long pageVersion = 0;
+    private long cacheVersion = -1;
+    private WebDriver driver;        // innermost driver, for the on-demand network subscription
+
+    // Guards the network subscription. Separate from monitor: subscribing and unsubscribing
+    // wait on the BiDi connection, whose event thread needs monitor to deliver events.
+    private final Object networkLock = new Object();
+    private Network network;         // open while responseWatchers > 0
+    private int responseWatchers = 0;
+    private volatile boolean recordingResponses = false;
+    private volatile String activeContext;
+    private final ThreadLocal<Boolean> querying = ThreadLocal.withInitial(() -> false);
+    private volatile boolean mutationFeed = false;
+
+    private PageEvents() {}
+
+    /**
+     * Subscribes to the session's events and returns a driver that serves URL and title
+     * from them. Returns the driver unchanged when BiDi is off or unavailable.
+     */
+    public static WebDriver decorate(WebDriver driver) {
+        if (!ConfigLoader.isBiDiEnabled() || !(driver instanceof HasBiDi)
+                || ((HasBiDi) driver).maybeGetBiDi().isEmpty()) {
+            return driver;
+        }
+        PageEvents pageEvents = new PageEvents();
+        try {
+            pageEvents.subscribe(driver);
+        } catch (WebDriverException e) {
+            System.err.println("BiDi event subscription failed, falling back to polling: " + e.getMessage());
+            pageEvents.close();
+            return driver;
+        }
+        synchronized (registry) {
+            registry.put(driver, pageEvents);
+        }
+        return new CachingDecorator(pageEvents).decorate(driver);
+    }
+
+    /** Events of a driver returned by decorate() (or anything wrapping it), or null. */
+    public static PageEvents of(WebDriver driver) {
+        synchronized (registry) {
+            while (true) {
+                PageEvents pageEvents = registry.get(driver);
+                if (pageEvents != null) {
+                    return pageEvents;
+                }
+                if (!(driver instanceof WrapsDriver)) {
+                    return null;
+                }
+                driver = ((WrapsDriver) driver).getWrappedDriver();
+            }
+        }
+    }
+
+    /** Sequence number to pass to the await methods; take it before the triggering action. */
+    public long mark() {
+        synchronized (monitor) {
+            return seq;
+        }
+    }
+
+    /**
+     * Waits for a top-level page in the active window to reach DOMContentLoaded after mark.
+     * @return the loaded URL, or null on timeout
+     */
+    public String awaitPageLoad(long mark, Duration timeout) {
+        Event event = await(events, mark, timeout,
+                e -> "load".equals(e.type) && (activeContext == null || activeContext.equals(e.context)));
+        return event == null ? null : event.url;
+    }
+
+    /**
+     * Starts recording HTTP responses until the returned handle is closed. Open it
+     * before the action whose response you wait for.
+     */
+    public ResponseWatch watchResponses() {
+        synchronized (networkLock) {
+            if (responseWatchers == 0) {
+                Network subscribed = new Network(driver);
+                subscribed.onResponseCompleted(response -> recordResponse(response.getBrowsingContextId(),
+                        response.getResponseData().getUrl(), response.getResponseData().getStatus()));
+                network = subscribed;
+                recordingResponses = true;
+            }
+            responseWatchers++;
+        }
+        return new ResponseWatch(mark());
+    }
+
+    /** Responses recorded from the moment it was opened; see watchResponses(). */
+    public class ResponseWatch implements AutoCloseable {
+        private final long mark;
+        private boolean closed = false;
+
+        private ResponseWatch(long mark) {
+            this.mark = mark;
+        }
+
+        /**
+         * Waits for a completed HTTP response whose URL matches.
+         * @return the response event, or null on timeout
+         */
+        public Event await(Predicate<String> url, Duration timeout) {
+            return PageEvents.this.await(responses, mark, timeout, e -> url.test(e.url));
+        }
+
+        @Override
+        public void close() {
+            synchronized (networkLock) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                if (--responseWatchers == 0) {
+                    stopRecordingResponses();
+                }
+            }
+        }
+    }
+
+    /** Uncaught JavaScript errors seen after mark, oldest first. */
+    public List<String> jsErrorsSince(long mark) {
+        List<String> errors = new ArrayList<>();
+        synchronized (monitor) {
+            for (Event event : events) {
+                if (event.seq > mark && "js-error".equals(event.type)) {
+                    errors.add(event.text);
+                }
+            }
+        }
+        return errors;
+    }
+
+    /** Changes whenever the page may look different to a query. */
+    public long pageVersion() {
+        synchronized (monitor) {
+            return pageVersion;
+        }
+    }
+
+    /** True if cached() would answer key from memory right now. */
+    public boolean isCached(String key) {
+        synchronized (monitor) {
+            return mutationFeed && cacheVersion == pageVersion && queryCache.containsKey(key);
+        }
+    }
+
+    /**
+     * Result of query for key, computed once per page version. Exceptions are not
+     * cached, and a result is only kept if the page didn't change while computing it.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T cached(String key, Supplier<T> query) {
+        if (!mutationFeed) {
+            return query.get();
+        }
+        long version;
+        synchronized (monitor) {
+            version = pageVersion;
+            if (cacheVersion == version && queryCache.containsKey(key)) {
+                return (T) queryCache.get(key);
+            }
+        }
+        boolean outer = !querying.get();
+        querying.set(true);
+        T value;
+        try {
+            value = query.get();
+        } finally {
+            if (outer) {
+                querying.set(false);
+            }
+        }
+        synchronized (monitor) {
+            if (pageVersion == version) {
+                if (cacheVersion != version) {
+                    queryCache.clear();
+                    cacheVersion = version;
+                }
+                queryCache.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // SUBSCRIPTIONS
+    // ─────────────────────────────────────────────────────────
+
+    private void subscribe(WebDriver driver) {
+        this.driver = driver;
+        activeContext = driver.getWindowHandle();
+        topLevel.addAll(driver.getWindowHandles());
+
+        BrowsingContextInspector inspector = new BrowsingContextInspector(driver);
+        inspector.onBrowsingContextCreated(info -> {
+            if (info.getParentBrowsingContext() == null) {
+                synchronized (monitor) {
+                    topLevel.add(info.getId());
+                }
+            }
+        });
+        inspector.onBrowsingContextDestroyed(info -> {
+            synchronized (monitor) {
+                topLevel.remove(info.getId());
+                urls.remove(info.getId());
+                titles.remove(info.getId());
+            }
+        });
+        inspector.onNavigationStarted(info -> {
+            synchronized (monitor) {
+                titles.remove(info.getBrowsingContextId());
+                if (topLevel.contains(info.getBrowsingContextId())) {
+                    pageVersion++;
+                }
+            }
+        });
+        try {
+            inspector.onNavigationCommitted(info -> urlChanged(info.getBrowsingContextId(), info.getUrl()));
+        } catch (WebDriverException e) {
+            // Not emitted by every browser yet; DOMContentLoaded still updates the URL
+        }
+        inspector.onFragmentNavigated(info -> urlChanged(info.getBrowsingContextId(), info.getUrl()));
+        try {
+            // pushState / replaceState: the URL changes with no navigation event at all
+            inspector.onHistoryUpdated(update -> urlChanged(update.getBrowsingContextId(), update.getUrl()));
+        } catch (WebDriverException e) {
+            // Not emitted by every browser yet; the URL is then read fresh after each get()
+        }
+        inspector.onDomContentLoaded(info -> {
+            if (urlChanged(info.getBrowsingContextId(), info.getUrl())) {
+                record("load", info.getBrowsingContextId(), info.getUrl(), 0, null);
+            }
+        });
+        modules.add(inspector);
+
+        LogInspector logs = new LogInspector(driver);
+        logs.onJavaScriptException(entry -> record("js-error", null, null, 0, entry.getText()));
+        modules.add(logs);
+
+        // One message per batch of DOM mutations in every document from now on
+        Script script = new Script(driver);
+        modules.add(script);
+        try {
+            script.addPreloadScript(MUTATION_FEED, List.of(new ChannelValue("dom-mutated")));
+            script.onMessage(message -> {
+                String context = message.getSource().getBrowsingContext().orElse(null);
+                synchronized (monitor) {
+                    if (context == null || topLevel.contains(context)) {
+                        pageVersion++;
+                    }
+                }
+            });
+            mutationFeed = true;
+        } catch (WebDriverException e) {
+            // Without it a cached query could miss page-made changes; cached() then always queries
+            System.err.println("BiDi mutation feed unavailable, query cache off: " + e.getMessage());
+        }
+    }
+
+    private static final String MUTATION_FEED =
+            "(channel) => {" +
+            "  new MutationObserver(() => channel('m')).observe(document," +
+            "      {childList: true, subtree: true, attributes: true, characterData: true});" +
+            "}";
+
+    private void touch() {
+        synchronized (monitor) {
+            pageVersion++;
+        }
+    }
+
+    // Updates the cached URL of a top-level context; false for iframes
+    private boolean urlChanged(String context, String url) {
+        synchronized (monitor) {
+            if (!topLevel.contains(context)) {
+                return false;
+            }
+            urls.put(context, url);
+            titles.remove(context);
+            pageVersion++;
+            return true;
+        }
+    }
+
+    private void record(String type, String context, String url, int status, String text) {
+        synchronized (monitor) {
+            events.addLast(new Event(++seq, type, context, url, status, text));
+            if (events.size() > MAX_EVENTS) {
+                events.removeFirst();
+            }
+            monitor.notifyAll();
+        }
+    }
+
+    // Kept apart from events, so a burst of responses never pushes out a page load
+    private void recordResponse(String context, String url, int status) {
+        if (!recordingResponses) {
+            return; // arrived after the last watch closed
+        }
+        synchronized (monitor) {
+            responses.addLast(new Event(++seq, "response", context, url, status, null));
+            if (responses.size() > MAX_RESPONSES) {
+                responses.removeFirst();
+            }
+            monitor.notifyAll();
+        }
+    }
+
+    private Event await(Deque<Event> source, long mark, Duration timeout, Predicate<Event> matches) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        synchronized (monitor) {
+            long seen = mark;
+            while (true) {
+                for (Event event : source) {
+                    if (event.seq > seen && matches.test(event)) {
+                        return event;
+                    }
+                }
+                seen = seq;
+                long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMs <= 0) {
+                    return null;
+                }
+                try {
+                    monitor.wait(remainingMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return null;
+                }
+            }
+        }
+    }
+
+    // Caller holds networkLock
+    private void stopRecordingResponses() {
+        recordingResponses = false;
+        if (network != null) {
+            network.close();
+            network = null;
+        }
+        synchronized (monitor) {
+            responses.clear();
+        }
+    }
+
+    private void close() {
+        synchronized (networkLock) {
+            stopRecordingResponses();
+        }
+        for (AutoCloseable module : modules) {
+            try {
+                module.close();
+            } catch (Exception ignored) {}
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // URL / TITLE CACHE
+    // ─────────────────────────────────────────────────────────
+
+    private static class CachingDecorator extends WebDriverDecorator<WebDriver> {
+        private final PageEvents pageEvents;
+
+        CachingDecorator(PageEvents pageEvents) {
+            this.pageEvents = pageEvents;
+        }
+
+        @Override
+        public Object call(Decorated<?> target, Method method, Object[] args) throws Throwable {
+            Object original = target.getOriginal();
+            String name = method.getName();
+            boolean onDriver = original instanceof WebDriver;
+
+            if (onDriver && ("getCurrentUrl".equals(name) || "getTitle".equals(name))) {
+                Map<String, String> cache = "getTitle".equals(name) ? pageEvents.titles : pageEvents.urls;
+                String context = pageEvents.activeContext;
+                synchronized (pageEvents.monitor) {
+                    if (context != null && cache.containsKey(context)) {
+                        return cache.get(context);
+                    }
+                }
+                Object value = super.call(target, method, args);
+                synchronized (pageEvents.monitor) {
+                    if (context != null && context.equals(pageEvents.activeContext)) {
+                        cache.put(context, (String) value);
+                    }
+                }
+                return value;
+            }
+
+            if ((onDriver && "get".equals(name)) || original instanceof WebDriver.Navigation) {
+                // get() may return before DOMContentLoaded is reported; read the URL fresh once
+                forgetActive();
+            }
+
+            Object result;
+            try {
+                result = super.call(target, method, args);
+            } finally {
+                if (actsOnPage(original, name)) {
+                    pageEvents.touch();
+                }
+            }
+
+            if (onDriver && "getWindowHandle".equals(name)) {
+                pageEvents.activeContext = (String) result;
+            } else if (original instanceof WebDriver.TargetLocator && "window".equals(name)) {
+                synchronized (pageEvents.monitor) {
+                    // window() also accepts window names; those aren't context ids
+                    pageEvents.activeContext = pageEvents.topLevel.contains(args[0]) ? (String) args[0] : null;
+                }
+            } else if ((original instanceof WebDriver.TargetLocator && "newWindow".equals(name))
+                    || (onDriver && "close".equals(name))) {
+                pageEvents.activeContext = null;
+            } else if (onDriver && "quit".equals(name)) {
+                pageEvents.close();
+                synchronized (registry) {
+                    registry.remove(original);
+                }
+            }
+            return result;
+        }
+
+        // Commands after which queries may see a different page
+        private boolean actsOnPage(Object original, String name) {
+            if (original instanceof WebElement) {
+                return "click".equals(name) || "sendKeys".equals(name)
+                        || "clear".equals(name) || "submit".equals(name);
+            }
+            if (original instanceof WebDriver) {
+                // A script may change the DOM; the mutation feed would report it only later.
+                // Scripts run by a cached() query are reads and leave the version alone.
+                boolean script = "executeScript".equals(name) || "executeAsyncScript".equals(name);
+                return "get".equals(name) || "close".equals(name)
+                        || (script && !pageEvents.querying.get())
+                        || ("perform".equals(name) && original instanceof Interactive);
+            }
+            return original instanceof WebDriver.Navigation || original instanceof WebDriver.TargetLocator;
+        }
+
+        private void forgetActive() {
+            String context = pageEvents.activeContext;
+            if (context != null) {
+                synchronized (pageEvents.monitor) {
+                    pageEvents.urls.remove(context);
+                    pageEvents.titles.remove(context);
+                }
+            }
+        }
+    }
+}
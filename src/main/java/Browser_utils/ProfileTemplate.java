@@ -0,0 +1,273 @@
+// ProfileTemplate.java - Prepares a warmed browser profile once and clones it per session
+package Browser_utils;
+
+import config.ConfigLoader;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * "Profile_Mode": "template" in info.json.
+ *
+ * Normally every session starts on an empty private profile (incognito / -private /
+ * inprivate), so first-run setup, the consent dialog and the static-asset cache are
+ * paid for on every launch. In template mode:
+ *
+ *   1. prepare() launches the browser once on target/profiles/<browser>-template,
+ *      accepts the consent dialog, browses the home and products pages to fill the
+ *      cache, quits, and marks the template ready. Later runs reuse it as-is.
+ *      Delete the directory to rebuild it.
+ *   2. cloneForSession() gives each new session its own copy. On Linux this is
+ *      "cp --reflink=auto", which is a copy-on-write clone on btrfs/xfs and a plain
+ *      copy elsewhere. Hard links are NOT used, because browsers rewrite profile
+ *      files (cookies, cache index) in place and that would corrupt the template.
+ *
+ * Clones live under target/profiles/sessions. deleteOnQuit() removes a clone when its
+ * session quits, which covers recycled sessions too; whatever is left (e.g. a session
+ * the watchdog killed) is deleted when the JVM exits.
+ *
+ * Preparing a template is serialised per browser; clones are copied without a lock,
+ * so concurrent launches don't wait on each other's copy.
+ */
+public class ProfileTemplate {
+
+    private static final Path PROFILES_DIR = Paths.get("target", "profiles");
+    private static final Path SESSIONS_DIR = PROFILES_DIR.resolve("sessions");
+    private static final String READY_MARKER = ".template-ready";
+
+    // Lock files that tie a profile to one running browser — never copied into a clone
+    private static final Set<String> LOCK_FILES = Set.of(
+            "SingletonLock", "SingletonCookie", "SingletonSocket", "lockfile", "parent.lock", "lock", ".parentlock");
+
+    private static final Set<String> prepared = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Object> templateLocks = new ConcurrentHashMap<>();
+    private static boolean cleanupRegistered = false;
+
+    private ProfileTemplate() {}
+
+    /** Absolute root of every template and clone this suite creates. */
+    public static Path profilesRoot() {
+        return PROFILES_DIR.toAbsolutePath();
+    }
+
+    public static boolean isEnabled() {
+        return "template".equalsIgnoreCase(ConfigLoader.getProfileMode());
+    }
+
+    /**
+     * Returns a fresh clone of the browser's template profile, preparing the template first if needed.
+     */
+    public static Path cloneForSession(String browser) {
+        Path template;
+        synchronized (templateLocks.computeIfAbsent(browser, b -> new Object())) {
+            template = prepare(browser);
+        }
+        registerCleanup();
+
+        Path clone = SESSIONS_DIR.resolve(browser + "-" + UUID.randomUUID());
+        try {
+            Files.createDirectories(SESSIONS_DIR);
+            copyTree(template, clone);
+            return clone.toAbsolutePath();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to clone " + browser + " profile template", e);
+        }
+    }
+
+    /**
+     * Wraps a session running on a clone so the clone is deleted once quit() returns
+     * (or fails — the browser is gone either way).
+     */
+    public static WebDriver deleteOnQuit(WebDriver driver, Path clone) {
+        return new EventFiringDecorator<>(new DiscardOnQuit(clone)).decorate(driver);
+    }
+
+    // Public: EventFiringDecorator calls listener methods reflectively and skips
+    // (with only a warning) any listener class it cannot access
+    public static final class DiscardOnQuit implements WebDriverListener {
+        private final Path clone;
+
+        DiscardOnQuit(Path clone) {
+            this.clone = clone;
+        }
+
+        @Override
+        public void afterQuit(WebDriver quit) {
+            discard(clone);
+        }
+
+        @Override
+        public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+            if (target instanceof WebDriver && "quit".equals(method.getName())) {
+                discard(clone);
+            }
+        }
+    }
+
+    private static void discard(Path clone) {
+        try {
+            deleteTree(clone);
+        } catch (IOException e) {
+            System.err.println("Could not delete profile clone " + clone + ": " + e.getMessage());
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // TEMPLATE
+    // ─────────────────────────────────────────────────────────
+
+    // Caller holds the browser's template lock
+    private static Path prepare(String browser) {
+        Path template = PROFILES_DIR.resolve(browser + "-template").toAbsolutePath();
+        if (prepared.contains(browser) || Files.exists(template.resolve(READY_MARKER))) {
+            prepared.add(browser);
+            return template;
+        }
+
+        System.out.println("Preparing " + browser + " profile template at " + template);
+        long start = System.currentTimeMillis();
+        try {
+            deleteTree(template);
+            Files.createDirectories(template);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create profile template dir: " + template, e);
+        }
+
+        WebDriver driver = DriverFactory.createDriver(browser, template);
+        try {
+            String baseUrl = ConfigLoader.getWebsiteUrl();
+            // get() returns at DOMContentLoaded under the eager strategy; wait for the
+            // images, fonts and scripts too, or they never reach the template's cache
+            driver.get(baseUrl);
+            awaitLoadComplete(driver);
+            acceptConsent(driver);
+            driver.get(baseUrl.replaceAll("/$", "") + "/products");
+            awaitLoadComplete(driver);
+        } finally {
+            driver.quit();
+        }
+
+        try {
+            Files.writeString(template.resolve(READY_MARKER), String.valueOf(System.currentTimeMillis()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to mark profile template ready: " + template, e);
+        }
+        prepared.add(browser);
+        System.out.println("✓ " + browser + " profile template ready in " + (System.currentTimeMillis() - start) + " ms");
+        return template;
+    }
+
+    private static void awaitLoadComplete(WebDriver driver) {
+        try {
+            new WebDriverWait(driver, Duration.ofSeconds(ConfigLoader.getPageLoadTimeoutSeconds()))
+                    .until(d -> "complete".equals(((JavascriptExecutor) d).executeScript("return document.readyState")));
+        } catch (TimeoutException e) {
+            // A resource that never finishes shouldn't block the run; the template is just less warm
+            System.err.println("Template page still loading after " + ConfigLoader.getPageLoadTimeoutSeconds()
+                    + " s: " + driver.getCurrentUrl());
+        }
+    }
+
+    // The site's Google consent dialog — accepted once here so clones never show it
+    private static void acceptConsent(WebDriver driver) {
+        try {
+            ((JavascriptExecutor) driver).executeScript(
+                    "var b=document.querySelector('.fc-cta-consent, button[aria-label=\"Consent\"]');" +
+                            "if(b){b.click();}");
+        } catch (Exception ignored) {}
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // CLONING
+    // ─────────────────────────────────────────────────────────
+
+    private static void copyTree(Path source, Path target) throws IOException {
+        if (reflinkCopy(source, target)) {
+            for (String lock : LOCK_FILES) {
+                Files.deleteIfExists(target.resolve(lock));
+            }
+            return;
+        }
+
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir)));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!LOCK_FILES.contains(file.getFileName().toString()) && attrs.isRegularFile()) {
+                    Files.copy(file, target.resolve(source.relativize(file)), StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    // Copy-on-write clone where the filesystem supports it; false if cp isn't usable here
+    private static boolean reflinkCopy(Path source, Path target) {
+        if (!System.getProperty("os.name").toLowerCase().contains("linux")) {
+            return false;
+        }
+        try {
+            Process cp = new ProcessBuilder("cp", "-a", "--reflink=auto",
+                    source.toString(), target.toString())
+                    .redirectErrorStream(true)
+                    .start();
+            return cp.waitFor() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static synchronized void registerCleanup() {
+        if (cleanupRegistered) {
+            return;
+        }
+        cleanupRegistered = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                deleteTree(SESSIONS_DIR);
+            } catch (IOException ignored) {}
+        }, "profile-clone-cleanup"));
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException ignored) {}
+            });
+        }
+    }
+}
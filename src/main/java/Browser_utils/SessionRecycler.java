@@ -0,0 +1,164 @@
+// SessionRecycler.java - Samples browser memory and decides when a session should be replaced
+package Browser_utils;
+
+import config.ConfigLoader;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps long runs from slowing down as one browser's heap grows.
+ *
+ * At every scenario boundary the owner of a session (DriverManager for the shared
+ * driver, DriverLease for leased ones) calls shouldRecycle(). That takes one sample:
+ *
+ *   - RSS of the session's whole driver + browser process tree (Linux /proc)
+ *   - JS heap of the current page via performance.memory (Chrome / Edge; blank elsewhere)
+ *
+ * appends it to target/memory/samples.csv, and returns true once any limit from
+ * info.json is crossed: "Recycle_Max_Rss_Mb", "Recycle_Max_Js_Heap_Mb" or
+ * "Recycle_Max_Scenarios" (0 disables a limit).
+ *
+ * The owner then captures the session's state, quits it, launches a new one and
+ * restores cookies + URL, so the next scenario carries on logged in on a fresh heap.
+ */
+public class SessionRecycler {
+
+    private static final Path SAMPLES_FILE = Paths.get("target", "memory", "samples.csv");
+    private static final AtomicInteger sessionCounter = new AtomicInteger();
+
+    private static final Map<WebDriver, SessionStats> stats = new IdentityHashMap<>();
+
+    private SessionRecycler() {}
+
+    /** What a replacement session needs to pick up where the old one stopped. */
+    public static class SessionState {
+        private final String url;
+        private final Set<Cookie> cookies;
+
+        private SessionState(String url, Set<Cookie> cookies) {
+            this.url = url;
+            this.cookies = cookies;
+        }
+    }
+
+    private static class SessionStats {
+        final String label;
+        int scenarios = 0;
+
+        SessionStats(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Counts one finished scenario, samples memory and checks the limits.
+     * @param driver       the session to check
+     * @param processRoots its driver-process PIDs (empty → RSS not sampled)
+     * @return true if the session should be replaced now
+     */
+    public static boolean shouldRecycle(WebDriver driver, Set<Long> processRoots) {
+        SessionStats session;
+        synchronized (stats) {
+            session = stats.computeIfAbsent(driver,
+                    d -> new SessionStats("session-" + sessionCounter.incrementAndGet()));
+            session.scenarios++;
+        }
+
+        long rssMb = BrowserProcesses.treeRssBytes(processRoots) / (1024 * 1024);
+        Long jsHeapMb = jsHeapMb(driver);
+        writeSample(session, rssMb, jsHeapMb);
+
+        String reason = null;
+        int maxRss = ConfigLoader.getRecycleMaxRssMb();
+        int maxHeap = ConfigLoader.getRecycleMaxJsHeapMb();
+        int maxScenarios = ConfigLoader.getRecycleMaxScenarios();
+        if (maxRss > 0 && rssMb >= maxRss) {
+            reason = "RSS " + rssMb + " MB ≥ " + maxRss + " MB";
+        } else if (maxHeap > 0 && jsHeapMb != null && jsHeapMb >= maxHeap) {
+            reason = "JS heap " + jsHeapMb + " MB ≥ " + maxHeap + " MB";
+        } else if (maxScenarios > 0 && session.scenarios >= maxScenarios) {
+            reason = session.scenarios + " scenarios ≥ " + maxScenarios;
+        }
+
+        if (reason != null) {
+            System.out.println("♻ Recycling " + session.label + ": " + reason);
+            return true;
+        }
+        return false;
+    }
+
+    /** Reads the URL and cookies of a session that is about to be quit. */
+    public static SessionState captureState(WebDriver driver) {
+        try {
+            return new SessionState(driver.getCurrentUrl(), driver.manage().getCookies());
+        } catch (Exception e) {
+            System.err.println("Could not capture session state: " + e.getMessage());
+            return new SessionState(null, Set.of());
+        }
+    }
+
+    /** Puts cookies back (they can only be set on their own domain) and reopens the URL. */
+    public static void restoreState(WebDriver driver, SessionState state) {
+        if (state.url == null || !state.url.startsWith("http")) {
+            return;
+        }
+        try {
+            driver.get(state.url);
+            for (Cookie cookie : state.cookies) {
+                try {
+                    driver.manage().addCookie(cookie);
+                } catch (Exception ignored) {} // third-party cookie for another domain
+            }
+            driver.navigate().refresh();
+        } catch (Exception e) {
+            System.err.println("Could not restore session state: " + e.getMessage());
+        }
+    }
+
+    /** Drops the bookkeeping for a session that has been quit. */
+    public static void forget(WebDriver driver) {
+        synchronized (stats) {
+            stats.remove(driver);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    private static Long jsHeapMb(WebDriver driver) {
+        try {
+            Object used = ((JavascriptExecutor) driver).executeScript(
+                    "return (window.performance && performance.memory) ? performance.memory.usedJSHeapSize : null;");
+            return used instanceof Number ? ((Number) used).longValue() / (1024 * 1024) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static synchronized void writeSample(SessionStats session, long rssMb, Long jsHeapMb) {
+        try {
+            Files.createDirectories(SAMPLES_FILE.getParent());
+            if (!Files.exists(SAMPLES_FILE)) {
+                Files.writeString(SAMPLES_FILE, "timestamp,session,scenarios,rss_mb,js_heap_mb\n");
+            }
+            String row = Instant.now() + "," + session.label + "," + session.scenarios + ","
+                    + rssMb + "," + (jsHeapMb != null ? jsHeapMb : "") + "\n";
+            Files.writeString(SAMPLES_FILE, row, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            System.err.println("Could not write memory sample: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+// SessionWatchdog.java - Aborts browser sessions whose current command has hung
+package Browser_utils;
+
+import config.ConfigLoader;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Times every WebDriver command and kills sessions that stop answering.
+ *
+ * DriverFactory's page-load (60 s) and script (30 s) timeouts are enforced by the
+ * driver binary itself — if chromedriver hangs, nothing enforces them and the worker
+ * thread blocks forever. watch() wraps a driver so every call (driver AND element
+ * calls) is recorded with its start time. A background thread checks once a second;
+ * any call older than "Command_Budget_Seconds" (default 90) gets:
+ *
+ *   1. a full thread dump written to target/watchdog/
+ *   2. the session's driver + browser process tree killed, which makes the blocked
+ *      HTTP call fail so the worker thread gets control back. Under a shared driver
+ *      service only the browser is killed and the session is then deleted on the
+ *      service (DriverServices.abortSession); the service itself keeps running
+ *   3. the onAbort callback, so the owner can drop the session and start a new one
+ */
+public class SessionWatchdog {
+
+    private static final Path DUMP_DIR = Paths.get("target", "watchdog");
+
+    // One entry per thread currently inside a WebDriver call
+    private static final Map<Thread, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService checker;
+
+    private SessionWatchdog() {}
+
+    /**
+     * Wraps a freshly created driver so its commands are timed.
+     * @param driver       the driver returned by DriverFactory
+     * @param processRoots root PIDs of this session, see BrowserProcesses.sessionRoots (may be empty)
+     * @param onAbort      called with the wrapped driver after it has been killed
+     * @return the wrapped driver — use it everywhere instead of the original
+     */
+    public static WebDriver watch(WebDriver driver, Set<Long> processRoots, Consumer<WebDriver> onAbort) {
+        ensureChecker();
+        Session session = new Session(driver, processRoots, onAbort);
+        session.decorated = new EventFiringDecorator<>(new CommandTimer(session)).decorate(driver);
+        return session.decorated;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // TRACKING
+    // ─────────────────────────────────────────────────────────
+
+    private static class Session {
+        final WebDriver raw;
+        final Set<Long> processRoots;
+        final Consumer<WebDriver> onAbort;
+        volatile WebDriver decorated;
+        volatile boolean aborted = false;
+
+        Session(WebDriver raw, Set<Long> processRoots, Consumer<WebDriver> onAbort) {
+            this.raw = raw;
+            this.processRoots = Set.copyOf(processRoots);
+            this.onAbort = onAbort;
+        }
+    }
+
+    private static class InFlight {
+        final Session session;
+        final String command;
+        final long startNanos = System.nanoTime();
+
+        InFlight(Session session, String command) {
+            this.session = session;
+            this.command = command;
+        }
+    }
+
+    private static class CommandTimer implements WebDriverListener {
+        private final Session session;
+
+        CommandTimer(Session session) {
+            this.session = session;
+        }
+
+        @Override
+        public void beforeAnyCall(Object target, Method method, Object[] args) {
+            inFlight.put(Thread.currentThread(),
+                    new InFlight(session, target.getClass().getSimpleName() + "." + method.getName()));
+        }
+
+        @Override
+        public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+            inFlight.remove(Thread.currentThread());
+        }
+
+        @Override
+        public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+            inFlight.remove(Thread.currentThread());
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // CHECKING
+    // ─────────────────────────────────────────────────────────
+
+    private static synchronized void ensureChecker() {
+        if (checker != null) {
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "session-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        checker.scheduleWithFixedDelay(SessionWatchdog::check, 1, 1, TimeUnit.SECONDS);
+    }
+
+    private static void check() {
+        long budgetNanos = TimeUnit.SECONDS.toNanos(ConfigLoader.getCommandBudgetSeconds());
+        for (Map.Entry<Thread, InFlight> entry : inFlight.entrySet()) {
+            InFlight call = entry.getValue();
+            long elapsed = System.nanoTime() - call.startNanos;
+            if (elapsed > budgetNanos && !call.session.aborted) {
+                abort(entry.getKey(), call, TimeUnit.NANOSECONDS.toSeconds(elapsed));
+            }
+        }
+    }
+
+    private static void abort(Thread worker, InFlight call, long elapsedSeconds) {
+        Session session = call.session;
+        session.aborted = true;
+
+        System.err.println("⚠ [watchdog] " + call.command + " on " + worker.getName()
+                + " has run " + elapsedSeconds + " s — aborting session");
+        writeThreadDump(call);
+
+        // Roots are the browser, never the shared driver (see BrowserProcesses.sessionRoots)
+        BrowserProcesses.tree(session.processRoots).forEach(ProcessHandle::destroyForcibly);
+        if (!DriverServices.abortSession(session.raw) && session.processRoots.isEmpty()) {
+            // No PIDs known and no shared service (e.g. remote session) — best effort quit from this thread
+            try {
+                session.raw.quit();
+            } catch (Exception ignored) {}
+        }
+        inFlight.values().removeIf(c -> c.session == session);
+
+        try {
+            session.onAbort.accept(session.decorated);
+        } catch (Exception e) {
+            System.err.println("[watchdog] onAbort failed: " + e.getMessage());
+        }
+    }
+
+    private static void writeThreadDump(InFlight call) {
+        StringBuilder dump = new StringBuilder("Hung command: " + call.command + "\n\n");
+        for (Map.Entry<Thread, StackTraceElement[]> thread : Thread.getAllStackTraces().entrySet()) {
+            dump.append('"').append(thread.getKey().getName()).append("\" ")
+                    .append(thread.getKey().getState()).append('\n');
+            for (StackTraceElement frame : thread.getValue()) {
+                dump.append("    at ").append(frame).append('\n');
+            }
+            dump.append('\n');
+        }
+
+        Path file = DUMP_DIR.resolve("threaddump-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS")) + ".txt");
+        try {
+            Files.createDirectories(DUMP_DIR);
+            Files.writeString(file, dump);
+            System.err.println("[watchdog] thread dump → " + file);
+        } catch (IOException e) {
+            System.err.println("[watchdog] could not write thread dump: " + e.getMessage());
+        }
+    }
+}
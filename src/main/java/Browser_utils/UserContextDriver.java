@@ -0,0 +1,447 @@
+// UserContextDriver.java - An isolated BiDi user context that looks like an ordinary WebDriver
+package Browser_utils;
+
+import config.ConfigLoader;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WindowType;
+import org.openqa.selenium.WrapsDriver;
+import org.openqa.selenium.WrapsElement;
+import org.openqa.selenium.bidi.browsingcontext.BrowsingContext;
+import org.openqa.selenium.bidi.browsingcontext.CreateContextParameters;
+import org.openqa.selenium.bidi.browsingcontext.ReadinessState;
+import org.openqa.selenium.bidi.module.Browser;
+import org.openqa.selenium.bidi.module.Script;
+import org.openqa.selenium.bidi.script.EvaluateResult;
+import org.openqa.selenium.bidi.script.EvaluateResultExceptionValue;
+import org.openqa.selenium.bidi.script.EvaluateResultSuccess;
+import org.openqa.selenium.bidi.script.LocalValue;
+import org.openqa.selenium.bidi.script.RemoteReference;
+import org.openqa.selenium.bidi.script.RemoteValue;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.RemoteWebElement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Several isolated "browsers" inside ONE browser process.
+ *
+ * open() creates a WebDriver BiDi user context (its own cookie jar, localStorage and
+ * cache partition — like a separate incognito profile) and a tab inside it. Page
+ * objects take the returned proxy like any other WebDriver.
+ *
+ *   - Commands that can block — get() / navigate() (up to the page-load timeout) and
+ *     executeAsyncScript() (race and modal waits) — are sent over BiDi addressed to the
+ *     tab's context id: browsingContext.navigate / traverseHistory / reload and
+ *     script.callFunction with awaitPromise. They need no window switch and take no
+ *     lock, so contexts of one browser wait on their pages side by side.
+ *   - Everything else is a short classic command. The tab's context id is also its
+ *     window handle, so those switch to it and run under a per-browser lock; the
+ *     switch is made on every call, as anything using the shared driver directly can
+ *     change the active window. Waits and sleeps happen outside the lock.
+ *   - Elements passed to or returned from async scripts travel as BiDi shared ids,
+ *     which chromedriver and geckodriver use as classic element ids too.
+ *   - WebElements, Navigation, Options, TargetLocator etc. returned by the proxy are
+ *     wrapped the same way, so element calls also land in the right tab.
+ *   - quit() / close() on a context remove only that context, never the shared browser.
+ *
+ * The shared driver must be started with "BiDi": true in info.json. A browser's
+ * lock is dropped when its last context closes or when the browser is quit.
+ */
+public class UserContextDriver implements InvocationHandler {
+
+    /** Per-browser state shared by all of its contexts. */
+    private static class SharedBrowser {
+        final ReentrantLock lock = new ReentrantLock();
+        int openContexts;   // guarded by sharedBrowsers
+    }
+
+    private static final String ASYNC_WRAPPER_HEAD =
+            "function () {" +
+            "  var args = Array.prototype.slice.call(arguments), timeoutMs = args.shift();" +
+            "  return new Promise(function (resolve, reject) {" +
+            "    var timer = setTimeout(function () { reject(new Error('script timeout')); }, timeoutMs);" +
+            "    args.push(function (value) { clearTimeout(timer); resolve(value); });" +
+            "    (function () {\n";
+    private static final String ASYNC_WRAPPER_TAIL =
+            "\n    }).apply(null, args);" +
+            "  });" +
+            "}";
+
+    private static final Map<WebDriver, SharedBrowser> sharedBrowsers = new IdentityHashMap<>();
+
+    private final WebDriver shared;
+    private final SharedBrowser browser;
+    private final String userContext;
+    private final String handle;
+    private final Object target;
+    private final Duration scriptTimeout;
+    private WebDriver root;   // the driver-level proxy of this context
+    private volatile boolean closed;
+
+    private UserContextDriver(WebDriver shared, SharedBrowser browser, String userContext,
+                              String handle, Object target, Duration scriptTimeout) {
+        this.shared = shared;
+        this.browser = browser;
+        this.userContext = userContext;
+        this.handle = handle;
+        this.target = target;
+        this.scriptTimeout = scriptTimeout;
+    }
+
+    /**
+     * Opens a new isolated user context with one tab in the given (BiDi-enabled) browser.
+     */
+    public static WebDriver open(WebDriver shared) {
+        SharedBrowser browser;
+        synchronized (sharedBrowsers) {
+            browser = sharedBrowsers.computeIfAbsent(shared, d -> new SharedBrowser());
+            browser.openContexts++;
+        }
+
+        browser.lock.lock();
+        try {
+            String userContext = new Browser(shared).createUserContext();
+            BrowsingContext tab = new BrowsingContext(shared,
+                    new CreateContextParameters(WindowType.TAB).userContext(userContext));
+            Duration scriptTimeout = shared.manage().timeouts().getScriptTimeout();
+
+            UserContextDriver handler = new UserContextDriver(shared, browser, userContext, tab.getId(),
+                    shared, scriptTimeout);
+            WebDriver proxy = (WebDriver) handler.proxyFor(shared);
+            handler.root = proxy;
+            System.out.println("Opened isolated user context " + userContext);
+            return proxy;
+        } catch (RuntimeException e) {
+            release(shared, browser);
+            throw new RuntimeException(
+                    "Could not create a BiDi user context — is \"BiDi\": true set in info.json?", e);
+        } finally {
+            browser.lock.unlock();
+        }
+    }
+
+    /** Drops the lock kept for a browser that has been quit. Its contexts went with it. */
+    static void forget(WebDriver shared) {
+        synchronized (sharedBrowsers) {
+            sharedBrowsers.remove(shared);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            return invokeObjectMethod(proxy, method, args);
+        }
+
+        if (target == shared) {
+            switch (method.getName()) {
+                case "quit":
+                case "close":
+                    closeContext();
+                    return null;
+                case "getWindowHandle":
+                    return handle;
+                case "getWindowHandles":
+                    return Set.of(handle);
+                case "get":
+                    navigate(String.valueOf(args[0]));
+                    return null;
+                case "executeAsyncScript":
+                    return wrap(executeAsync((String) args[0], (Object[]) args[1]), Object.class);
+                default:
+                    break;
+            }
+        }
+        if (target instanceof WebDriver.Navigation) {
+            switch (method.getName()) {
+                case "to":
+                    navigate(String.valueOf(args[0]));
+                    return null;
+                case "back":
+                    new BrowsingContext(shared, handle).traverseHistory(-1);
+                    return null;
+                case "forward":
+                    new BrowsingContext(shared, handle).traverseHistory(1);
+                    return null;
+                case "refresh":
+                    new BrowsingContext(shared, handle).reload(readiness());
+                    return null;
+                default:
+                    break;
+            }
+        }
+
+        browser.lock.lock();
+        try {
+            shared.switchTo().window(handle);
+            Object result = method.invoke(target, unwrapAll(args));
+            return wrap(result, method.getReturnType());
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        } finally {
+            browser.lock.unlock();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // BY CONTEXT (no switch, no lock)
+    // ─────────────────────────────────────────────────────────
+
+    private void navigate(String url) {
+        new BrowsingContext(shared, handle).navigate(url, readiness(),
+                Duration.ofSeconds(ConfigLoader.getPageLoadTimeoutSeconds()));
+    }
+
+    // What get() waits for under the configured Page_Load_Strategy
+    private static ReadinessState readiness() {
+        switch (ConfigLoader.getPageLoadStrategy().toLowerCase()) {
+            case "none":  return ReadinessState.NONE;
+            case "eager": return ReadinessState.INTERACTIVE;
+            default:      return ReadinessState.COMPLETE;
+        }
+    }
+
+    // executeAsyncScript semantics: the callback is the last argument, the script timeout applies
+    private Object executeAsync(String script, Object[] args) {
+        List<LocalValue> values = new ArrayList<>();
+        values.add(LocalValue.numberValue(scriptTimeout.toMillis()));
+        for (Object arg : unwrapAll(args == null ? new Object[0] : args)) {
+            values.add(toLocal(arg));
+        }
+        EvaluateResult result = new Script(shared).callFunctionInBrowsingContext(handle,
+                ASYNC_WRAPPER_HEAD + script + ASYNC_WRAPPER_TAIL, true,
+                Optional.of(values), Optional.empty(), Optional.empty());
+
+        if (result instanceof EvaluateResultExceptionValue) {
+            String text = ((EvaluateResultExceptionValue) result).getExceptionDetails().getText();
+            if (text != null && text.contains("script timeout")) {
+                throw new ScriptTimeoutException("Async script did not call back within "
+                        + scriptTimeout.toMillis() + " ms in user context " + userContext);
+            }
+            throw new JavascriptException("Async script failed in user context " + userContext + ": " + text);
+        }
+        return fromRemote(((EvaluateResultSuccess) result).getResult());
+    }
+
+    private static LocalValue toLocal(Object arg) {
+        while (arg instanceof WrapsElement) {
+            arg = ((WrapsElement) arg).getWrappedElement();
+        }
+        if (arg == null) {
+            return LocalValue.nullValue();
+        }
+        if (arg instanceof String) {
+            return LocalValue.stringValue((String) arg);
+        }
+        if (arg instanceof Boolean) {
+            return LocalValue.booleanValue((Boolean) arg);
+        }
+        if (arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte) {
+            return LocalValue.numberValue(((Number) arg).longValue());
+        }
+        if (arg instanceof Number) {
+            return LocalValue.numberValue(((Number) arg).doubleValue());
+        }
+        if (arg instanceof RemoteWebElement) {
+            return LocalValue.remoteReference(RemoteReference.Type.SHARED_ID, ((RemoteWebElement) arg).getId());
+        }
+        if (arg instanceof Object[]) {
+            arg = List.of((Object[]) arg);
+        }
+        if (arg instanceof Collection) {
+            List<LocalValue> items = new ArrayList<>();
+            for (Object item : (Collection<?>) arg) {
+                items.add(toLocal(item));
+            }
+            return LocalValue.arrayValue(items);
+        }
+        if (arg instanceof Map) {
+            Map<Object, LocalValue> fields = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> field : ((Map<?, ?>) arg).entrySet()) {
+                fields.put(String.valueOf(field.getKey()), toLocal(field.getValue()));
+            }
+            return LocalValue.objectValue(fields);
+        }
+        throw new IllegalArgumentException("Argument type not supported by executeAsyncScript: " + arg.getClass());
+    }
+
+    // The classic shapes: Long for integral numbers, List, Map<String, Object>, WebElement
+    private Object fromRemote(RemoteValue value) {
+        Object raw = value.getValue().orElse(null);
+        switch (value.getType()) {
+            case "undefined":
+            case "null":
+                return null;
+            case "number":
+                double number = raw instanceof Number ? ((Number) raw).doubleValue() : Double.parseDouble(String.valueOf(raw));
+                return number == Math.rint(number) && !Double.isInfinite(number) ? (Object) (long) number : (Object) number;
+            case "array":
+            case "set":
+            case "nodelist":
+            case "htmlcollection":
+                List<Object> items = new ArrayList<>();
+                for (Object item : (List<?>) raw) {
+                    items.add(fromRemote((RemoteValue) item));
+                }
+                return items;
+            case "object":
+            case "map":
+                Map<String, Object> fields = new LinkedHashMap<>();
+                for (Map.Entry<?, ?> field : ((Map<?, ?>) raw).entrySet()) {
+                    Object key = field.getKey() instanceof RemoteValue
+                            ? fromRemote((RemoteValue) field.getKey()) : field.getKey();
+                    fields.put(String.valueOf(key), fromRemote((RemoteValue) field.getValue()));
+                }
+                return fields;
+            case "node":
+                RemoteWebElement element = new RemoteWebElement();
+                element.setParent(remoteDriver());
+                element.setId(value.getSharedId().orElseThrow(
+                        () -> new JavascriptException("Async script returned a node without a shared id")));
+                return element;
+            default:
+                return raw;
+        }
+    }
+
+    private RemoteWebDriver remoteDriver() {
+        WebDriver driver = shared;
+        while (driver instanceof WrapsDriver && !(driver instanceof RemoteWebDriver)) {
+            driver = ((WrapsDriver) driver).getWrappedDriver();
+        }
+        if (!(driver instanceof RemoteWebDriver)) {
+            throw new IllegalStateException("No RemoteWebDriver behind " + shared);
+        }
+        return (RemoteWebDriver) driver;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    private void closeContext() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        browser.lock.lock();
+        try {
+            new Browser(shared).removeUserContext(userContext); // also closes its tabs
+            System.out.println("Closed isolated user context " + userContext);
+        } catch (Exception e) {
+            System.err.println("Error while closing user context " + userContext + ": " + e.getMessage());
+        } finally {
+            browser.lock.unlock();
+            release(shared, browser);
+        }
+    }
+
+    // One context fewer; the last one out drops the browser's entry
+    private static void release(WebDriver shared, SharedBrowser browser) {
+        synchronized (sharedBrowsers) {
+            if (--browser.openContexts <= 0 && sharedBrowsers.get(shared) == browser) {
+                sharedBrowsers.remove(shared);
+            }
+        }
+    }
+
+    private Object wrap(Object result, Class<?> declaredType) {
+        if (result == null) {
+            return null;
+        }
+        if (result == shared) {
+            return root; // e.g. switchTo().defaultContent() or WrapsDriver.getWrappedDriver()
+        }
+        if (result instanceof List) {
+            List<Object> wrapped = new ArrayList<>();
+            for (Object item : (List<?>) result) {
+                wrapped.add(wrap(item, Object.class));
+            }
+            return wrapped;
+        }
+        if (result instanceof WebElement
+                || (declaredType.isInterface() && result.getClass().getPackageName().startsWith("org.openqa.selenium"))) {
+            UserContextDriver child = new UserContextDriver(shared, browser, userContext, handle, result, scriptTimeout);
+            child.root = root;
+            return child.proxyFor(result);
+        }
+        return result;
+    }
+
+    private Object proxyFor(Object delegate) {
+        Set<Class<?>> interfaces = new LinkedHashSet<>();
+        collectPublicInterfaces(delegate.getClass(), interfaces);
+        return Proxy.newProxyInstance(UserContextDriver.class.getClassLoader(),
+                interfaces.toArray(new Class<?>[0]), this);
+    }
+
+    private static void collectPublicInterfaces(Class<?> type, Set<Class<?>> into) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Class<?> iface : current.getInterfaces()) {
+                if (Modifier.isPublic(iface.getModifiers())) {
+                    into.add(iface);
+                }
+                collectPublicInterfaces(iface, into);
+            }
+        }
+    }
+
+    // Proxies passed back in (e.g. executeScript("...", element)) must reach the session unwrapped
+    private static Object[] unwrapAll(Object[] args) {
+        if (args == null) {
+            return null;
+        }
+        Object[] unwrapped = new Object[args.length];
+        for (int i = 0; i < args.length; i++) {
+            unwrapped[i] = unwrap(args[i]);
+        }
+        return unwrapped;
+    }
+
+    private static Object unwrap(Object arg) {
+        if (arg != null && Proxy.isProxyClass(arg.getClass())
+                && Proxy.getInvocationHandler(arg) instanceof UserContextDriver) {
+            return ((UserContextDriver) Proxy.getInvocationHandler(arg)).target;
+        }
+        if (arg instanceof Object[]) {
+            return unwrapAll((Object[]) arg);
+        }
+        if (arg instanceof List) {
+            List<Object> unwrapped = new ArrayList<>();
+            for (Object item : (List<?>) arg) {
+                unwrapped.add(unwrap(item));
+            }
+            return unwrapped;
+        }
+        return arg;
+    }
+
+    private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return "UserContextDriver{" + userContext + " → " + target + "}";
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates page classes into the annotated package from locator manifests
+ * (classpath resources, e.g. "pages/payment.json"). See PageObjectProcessor.
+ *
+ *      // package-info.java
+ *      @GeneratePages("pages/payment.json")
+ *      package payment;
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.PACKAGE)
+public @interface GeneratePages {
+    String[] value();
+}
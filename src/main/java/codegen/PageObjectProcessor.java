@@ -0,0 +1,304 @@
+package codegen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns locator manifests into page classes at compile time.
+ *
+ * A manifest (JSON, under src/main/resources) describes one page:
+ *
+ *      {
+ *        "class": "PaymentForm",
+ *        "path": "/payment",
+ *        "locators": { "nameOnCard": "input[name='name_on_card']", ... },
+ *        "ready":    ["nameOnCard", "payButton"],
+ *        "batches":  { "cardFields": ["nameOnCard", "cardNumber", ...] }
+ *      }
+ *
+ * and the generated class (extending utils.PageSupport) gets:
+ *
+ *   - a By constant per locator and a waiting getter (nameOnCard())
+ *   - per batch, one method returning all its elements from a single script call,
+ *     instead of one findElement round trip each
+ *   - isReady() / awaitReady(): every "ready" locator present, checked in one script,
+ *     and registerReadiness() to make that the Waits contract for "path"
+ *
+ * It also writes codegen.GeneratedPages, whose registerAll() calls every generated
+ * class's registerReadiness(). Waits runs it, so a new manifest's readiness contract
+ * needs no hand-written registration.
+ *
+ * Locators are CSS only, so batches and readiness run as querySelector in the page.
+ * A bad manifest (unknown name, missing key) fails the compile with a message.
+ *
+ * The pom compiles this package first (without processing) and then runs the
+ * processor from the class output during the main compile; manifests are read from
+ * the class output too, where process-resources has copied them. An edited manifest
+ * makes the pom drop the generated sources so the next compile regenerates them.
+ *
+ * Only the Maven build runs this. An IDE's own compiler has neither the processor
+ * compiled nor the manifests copied when it builds, so delegate builds to Maven (or
+ * run mvn compile and use target/generated-sources/annotations as a source root).
+ */
+@SupportedAnnotationTypes("codegen.GeneratePages")
+public class PageObjectProcessor extends AbstractProcessor {
+
+    private static final String REGISTRY = "codegen.GeneratedPages";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    // Qualified names of the page classes generated so far
+    private final List<String> generated = new ArrayList<>();
+    private boolean registryWritten = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        Set<? extends Element> packages = round.getElementsAnnotatedWith(GeneratePages.class);
+        if (registryWritten && !packages.isEmpty()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "@GeneratePages found after "
+                    + REGISTRY + " was written; annotate hand-written package-info files only.");
+            return true;
+        }
+        for (Element element : packages) {
+            String pkg = ((PackageElement) element).getQualifiedName().toString();
+            for (String manifest : element.getAnnotation(GeneratePages.class).value()) {
+                try {
+                    generated.add(generate(pkg, manifest, readManifest(manifest)));
+                } catch (IOException | IllegalArgumentException e) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                            "Page manifest " + manifest + ": " + e.getMessage(), element);
+                }
+            }
+        }
+        if (!registryWritten && !round.processingOver()) {
+            try {
+                writeRegistry(packages.toArray(new Element[0]));
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Could not write " + REGISTRY + ": " + e.getMessage());
+            }
+            registryWritten = true;
+        }
+        return true;
+    }
+
+    // process-resources copies src/main/resources to the class output before compile
+    private JsonNode readManifest(String manifest) throws IOException {
+        FileObject file = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", manifest);
+        try (InputStream in = file.openInputStream()) {
+            return mapper.readTree(in);
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            throw new IOException("not on the class output — is it under src/main/resources?", e);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // GENERATION
+    // ─────────────────────────────────────────────────────────
+
+    // Returns the generated class's qualified name
+    private String generate(String pkg, String manifest, JsonNode root) throws IOException {
+        String className = required(root, "class").asText();
+        String path = root.path("path").asText("");
+
+        Map<String, String> locators = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = required(root, "locators").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> locator = it.next();
+            locators.put(locator.getKey(), locator.getValue().asText());
+        }
+        List<String> ready = names(root.path("ready"), locators, "ready");
+        Map<String, List<String>> batches = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = root.path("batches").fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> batch = it.next();
+            batches.put(batch.getKey(), names(batch.getValue(), locators, "batch " + batch.getKey()));
+        }
+
+        StringBuilder src = new StringBuilder();
+        src.append("// Generated by codegen.PageObjectProcessor from ").append(manifest).append(" — do not edit\n");
+        src.append("package ").append(pkg).append(";\n\n");
+        src.append("import org.openqa.selenium.By;\n");
+        src.append("import org.openqa.selenium.JavascriptExecutor;\n");
+        src.append("import org.openqa.selenium.NoSuchElementException;\n");
+        src.append("import org.openqa.selenium.WebDriver;\n");
+        src.append("import org.openqa.selenium.WebElement;\n");
+        src.append("import org.openqa.selenium.support.ui.ExpectedConditions;\n");
+        src.append("import utils.PageSupport;\n");
+        src.append("import utils.Waits;\n\n");
+        src.append("import java.util.List;\n");
+        src.append("import java.util.regex.Pattern;\n\n");
+        src.append("public class ").append(className).append(" extends PageSupport {\n\n");
+
+        src.append("    public static final String PATH = ").append(literal(path)).append(";\n\n");
+        for (Map.Entry<String, String> locator : locators.entrySet()) {
+            src.append("    public static final By ").append(constant(locator.getKey()))
+                    .append(" = By.cssSelector(").append(literal(locator.getValue())).append(");\n");
+        }
+        src.append("\n    private static final String READY_SCRIPT = ")
+                .append(literal(readyScript(ready, locators))).append(";\n");
+        for (Map.Entry<String, List<String>> batch : batches.entrySet()) {
+            src.append("    private static final String ").append(constant(batch.getKey())).append("_SCRIPT = ")
+                    .append(literal(batchScript(batch.getValue(), locators))).append(";\n");
+        }
+
+        src.append("\n    public ").append(className).append("(WebDriver driver) {\n")
+                .append("        super(driver);\n    }\n\n");
+
+        src.append("    /** Every ready locator (").append(String.join(", ", ready))
+                .append(") present, in one script. */\n");
+        src.append("    public static boolean isReady(WebDriver driver) {\n")
+                .append("        return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(READY_SCRIPT));\n")
+                .append("    }\n\n");
+        src.append("    /** Makes isReady() the Waits contract for PATH. */\n");
+        src.append("    public static void registerReadiness() {\n")
+                .append("        Waits.register(\"^\" + Pattern.quote(PATH) + \"/?$\", ")
+                .append(className).append("::isReady);\n    }\n\n");
+        src.append("    public ").append(className).append(" awaitReady() {\n")
+                .append("        wait.until(").append(className).append("::isReady);\n")
+                .append("        return this;\n    }\n");
+
+        for (String name : locators.keySet()) {
+            src.append("\n    public WebElement ").append(name).append("() {\n")
+                    .append("        return wait.until(ExpectedConditions.presenceOfElementLocated(")
+                    .append(constant(name)).append("));\n    }\n");
+        }
+
+        for (Map.Entry<String, List<String>> batch : batches.entrySet()) {
+            String type = capitalize(batch.getKey());
+            List<String> members = batch.getValue();
+
+            src.append("\n    /** ").append(String.join(", ", members)).append(" from one script call. */\n");
+            src.append("    @SuppressWarnings(\"unchecked\")\n");
+            src.append("    public ").append(type).append(" ").append(batch.getKey()).append("() {\n")
+                    .append("        List<WebElement> found = (List<WebElement>) script(")
+                    .append(constant(batch.getKey())).append("_SCRIPT);\n")
+                    .append("        String[] names = {");
+            for (int i = 0; i < members.size(); i++) {
+                src.append(i == 0 ? "" : ", ").append(literal(members.get(i)));
+            }
+            src.append("};\n")
+                    .append("        for (int i = 0; i < names.length; i++) {\n")
+                    .append("            if (found.get(i) == null) {\n")
+                    .append("                throw new NoSuchElementException(\"").append(className)
+                    .append(".").append(batch.getKey()).append(": \" + names[i] + \" not on the page\");\n")
+                    .append("            }\n        }\n")
+                    .append("        return new ").append(type).append("(found);\n    }\n");
+
+            src.append("\n    public static final class ").append(type).append(" {\n");
+            for (String member : members) {
+                src.append("        public final WebElement ").append(member).append(";\n");
+            }
+            src.append("\n        private ").append(type).append("(List<WebElement> found) {\n");
+            for (int i = 0; i < members.size(); i++) {
+                src.append("            this.").append(members.get(i)).append(" = found.get(").append(i).append(");\n");
+            }
+            src.append("        }\n    }\n");
+        }
+        src.append("}\n");
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(pkg + "." + className);
+        try (Writer out = file.openWriter()) {
+            out.write(src.toString());
+        }
+        return pkg + "." + className;
+    }
+
+    private void writeRegistry(Element[] origins) throws IOException {
+        StringBuilder src = new StringBuilder();
+        src.append("// Generated by codegen.PageObjectProcessor — do not edit\n");
+        src.append("package codegen;\n\n");
+        src.append("/** The page classes generated from locator manifests. */\n");
+        src.append("public final class GeneratedPages {\n\n");
+        src.append("    private GeneratedPages() {}\n\n");
+        src.append("    /** Registers every generated page's readiness contract with Waits. */\n");
+        src.append("    public static void registerAll() {\n");
+        for (String page : generated) {
+            src.append("        ").append(page).append(".registerReadiness();\n");
+        }
+        src.append("    }\n}\n");
+
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(REGISTRY, origins);
+        try (Writer out = file.openWriter()) {
+            out.write(src.toString());
+        }
+    }
+
+    private static String readyScript(List<String> ready, Map<String, String> locators) {
+        List<String> checks = new ArrayList<>();
+        for (String name : ready) {
+            checks.add("document.querySelector(" + literal(locators.get(name)) + ") !== null");
+        }
+        return "return " + (checks.isEmpty() ? "true" : String.join(" && ", checks)) + ";";
+    }
+
+    private static String batchScript(List<String> members, Map<String, String> locators) {
+        List<String> lookups = new ArrayList<>();
+        for (String name : members) {
+            lookups.add("document.querySelector(" + literal(locators.get(name)) + ")");
+        }
+        return "return [" + String.join(", ", lookups) + "];";
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    private static JsonNode required(JsonNode root, String key) {
+        JsonNode node = root.get(key);
+        if (node == null || node.isNull()) {
+            throw new IllegalArgumentException("'" + key + "' is required");
+        }
+        return node;
+    }
+
+    private static List<String> names(JsonNode array, Map<String, String> locators, String where) {
+        List<String> names = new ArrayList<>();
+        for (JsonNode name : array) {
+            if (!locators.containsKey(name.asText())) {
+                throw new IllegalArgumentException(where + " names unknown locator '" + name.asText() + "'");
+            }
+            names.add(name.asText());
+        }
+        return names;
+    }
+
+    // nameOnCard → NAME_ON_CARD
+    private static String constant(String name) {
+        return name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    // Double-quoted string literal, valid in both Java and JS
+    private static String literal(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
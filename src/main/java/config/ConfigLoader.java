@@ -4,23 +4,36 @@ package config;
 import utils.jsonUtil;
 import com.fasterxml.jackson.databind.JsonNode;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class ConfigLoader {
 
-    private static JsonNode config; // ✅ FIX: removed eager init + extra semicolon
+    private static volatile JsonNode config; // ✅ FIX: removed eager init + extra semicolon
     // Old code: private static JsonNode config = jsonUtil.readJson("config/info.json");;
     // Two problems: (1) the ";;" is a compile warning/error,
     // (2) readJson() runs at class-load time before jsonUtil is ready.
 
-    // ✅ FIX: Lazy-load with a clear error if the file is missing/malformed
+    // ✅ FIX: Lazy-load with a clear error if the file is missing/malformed.
+    // SuiteBootstrap reads config from several threads at once: volatile publishes the
+    // parsed tree safely and the lock makes the file load once. A failed load is
+    // retried on the next call with the same message.
     private static JsonNode getConfig() {
-        if (config == null) {
-            config = jsonUtil.readJson("config/info.json");
+        JsonNode loaded = config;
+        if (loaded != null) {
+            return loaded;
+        }
+        synchronized (ConfigLoader.class) {
             if (config == null) {
-                throw new RuntimeException(
-                        "Failed to load config/info.json — file is missing or malformed.");
+                JsonNode read = jsonUtil.readJson("config/info.json");
+                if (read == null) {
+                    throw new RuntimeException(
+                            "Failed to load config/info.json — file is missing or malformed.");
+                }
+                config = read;
             }
+            return config;
         }
-        return config;
     }
 
     public static String getBrowser() {
@@ -30,6 +43,22 @@ public class ConfigLoader {
         return getConfig().get("browser").asText();
     }
 
+    /**
+     * Browsers for a matrix run, from the "browsers" array.
+     * Falls back to the single "browser" value when no list is configured.
+     */
+    public static List<String> getBrowsers() {
+        JsonNode list = getConfig().get("browsers");
+        if (list == null || !list.isArray() || list.isEmpty()) {
+            return List.of(getBrowser());
+        }
+        List<String> browsers = new ArrayList<>();
+        for (JsonNode browser : list) {
+            browsers.add(browser.asText());
+        }
+        return List.copyOf(browsers);
+    }
+
     public static String getWebsiteUrl() {
         if (!getConfig().has("Website_Url")) {
             throw new RuntimeException("'Website_Url' key not found in config/info.json.");
@@ -43,4 +72,148 @@ public class ConfigLoader {
         }
         return getConfig().get("Website_Name").asText();
     }
-}
\ No newline at end of file
+
+    /** Upper bound on concurrently open browsers in SuiteOrchestrator. Defaults to 2. */
+    public static int getMaxBrowsers() {
+        return getInt("Max_Browsers", 2);
+    }
+
+    /** Upper bound on HTTP-only steps in flight in SuiteOrchestrator. Defaults to 1000. */
+    public static int getMaxHttpInFlight() {
+        return getInt("Max_Http_In_Flight", 1000);
+    }
+
+    /** Memory (MB) BrowserAdmission keeps free for the OS and the JVM. Defaults to 1024. */
+    public static int getAdmissionReserveMb() {
+        return getInt("Admission_Reserve_Mb", 1024);
+    }
+
+    /** How long one WebDriver command may run before SessionWatchdog aborts the session. Defaults to 90. */
+    public static int getCommandBudgetSeconds() {
+        return getInt("Command_Budget_Seconds", 90);
+    }
+
+    /** Whether OrphanReaper cleans up processes from crashed runs at startup. Defaults to true. */
+    public static boolean isReapOrphans() {
+        return getBoolean("Reap_Orphans", true);
+    }
+
+    /** Process-tree RSS (MB) at which SessionRecycler replaces a session. 0 disables. Defaults to 1500. */
+    public static int getRecycleMaxRssMb() {
+        return getInt("Recycle_Max_Rss_Mb", 1500);
+    }
+
+    /** Page JS heap (MB) at which SessionRecycler replaces a session. 0 disables. Defaults to 512. */
+    public static int getRecycleMaxJsHeapMb() {
+        return getInt("Recycle_Max_Js_Heap_Mb", 512);
+    }
+
+    /** Scenarios per session before SessionRecycler replaces it. 0 disables. Defaults to 50. */
+    public static int getRecycleMaxScenarios() {
+        return getInt("Recycle_Max_Scenarios", 50);
+    }
+
+    /** "fresh" (private profile per session) or "template" (see ProfileTemplate). Defaults to fresh. */
+    public static String getProfileMode() {
+        return getString("Profile_Mode", "fresh");
+    }
+
+    /** Whether sessions are started with WebDriver BiDi (webSocketUrl) enabled. Defaults to false. */
+    public static boolean isBiDiEnabled() {
+        return getBoolean("BiDi", false);
+    }
+
+    /** "local" (launch a browser per session) or "daemon" (attach to BrowserDaemon). Defaults to local. */
+    public static String getDriverMode() {
+        return getString("Driver_Mode", "local");
+    }
+
+    /** Port BrowserDaemon listens on and DaemonClient connects to. Defaults to 4455. */
+    public static int getDaemonPort() {
+        return getInt("Daemon_Port", 4455);
+    }
+
+    /** How long a daemon lease lives without a client heartbeat before it is released. Defaults to 60. */
+    public static int getDaemonLeaseSeconds() {
+        return getInt("Daemon_Lease_Seconds", 60);
+    }
+
+    /** Whether chromedriver / msedgedriver are shared by all sessions (see DriverServices). Defaults to true. */
+    public static boolean isSharedDriverService() {
+        return getBoolean("Shared_Driver_Service", true);
+    }
+
+    /** Connect timeout for WebDriver command requests. Defaults to 10. */
+    public static int getHttpConnectTimeoutSeconds() {
+        return getInt("Http_Connect_Timeout_Seconds", 10);
+    }
+
+    /**
+     * Read timeout for one WebDriver command response. Defaults to 75 — above the page-load
+     * timeout, below Command_Budget_Seconds (DriverServices clamps it there).
+     */
+    public static int getHttpReadTimeoutSeconds() {
+        return getInt("Http_Read_Timeout_Seconds", 75);
+    }
+
+    /** Whether SuiteBootstrap requests Website_Url once while the browser launches. Defaults to false. */
+    public static boolean isBootstrapWarmup() {
+        return getBoolean("Bootstrap_Warmup", false);
+    }
+
+    /** Selenium Grid used when Driver_Mode is "grid". Defaults to http://localhost:4444. */
+    public static String getGridUrl() {
+        return getString("Grid_Url", "http://localhost:4444");
+    }
+
+    /** Whether GridClient starts a standalone Grid when none answers at Grid_Url. Defaults to false. */
+    public static boolean isGridStandalone() {
+        return getBoolean("Grid_Standalone", false);
+    }
+
+    /** selenium-server jar a standalone Grid is started from. Defaults to empty. */
+    public static String getGridServerJar() {
+        return getString("Grid_Server_Jar", "");
+    }
+
+    /** Longest GridClient waits for a free node slot before giving up on a session. Defaults to 300. */
+    public static int getGridSlotTimeoutSeconds() {
+        return getInt("Grid_Slot_Timeout_Seconds", 300);
+    }
+
+    /** WebDriver page-load strategy: "normal", "eager" or "none" (see Waits). Defaults to normal. */
+    public static String getPageLoadStrategy() {
+        return getString("Page_Load_Strategy", "normal");
+    }
+
+    /** Page-load timeout, also the longest Waits.navigate() waits for a page. Defaults to 60. */
+    public static int getPageLoadTimeoutSeconds() {
+        return getInt("Page_Load_Timeout_Seconds", 60);
+    }
+
+    /** Record and rank locator costs (see LocatorProfiler). Defaults to false. */
+    public static boolean isLocatorProfiling() {
+        return getBoolean("Locator_Profiling", false);
+    }
+
+    /** Where Locators keeps candidate win counts between runs. Defaults to target/locator-history.json. */
+    public static String getLocatorHistoryFile() {
+        return getString("Locator_History_File", "target/locator-history.json");
+    }
+
+    // Optional keys fall back to a default instead of throwing
+    private static int getInt(String key, int defaultValue) {
+        JsonNode node = getConfig().get(key);
+        return node == null ? defaultValue : node.asInt(defaultValue);
+    }
+
+    private static String getString(String key, String defaultValue) {
+        JsonNode node = getConfig().get(key);
+        return node == null ? defaultValue : node.asText(defaultValue);
+    }
+
+    private static boolean getBoolean(String key, boolean defaultValue) {
+        JsonNode node = getConfig().get(key);
+        return node == null ? defaultValue : node.asBoolean(defaultValue);
+    }
+}
@@ -6,6 +6,7 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.PageCache;
 
 import java.time.Duration;
 import java.util.List;
@@ -118,16 +119,9 @@ public class DeleteAccount {
      */
     public boolean isAccountDeleted() {
         try {
-            // Dismiss ads FIRST — this is why the h2 was never found before.
-            // The ad overlay was sitting on top, and the wait kept timing out
-            // trying to find an element that was technically present but hidden behind the ad.
-            dismissAds();
-
-            WebElement heading = wait.until(
-                    ExpectedConditions.visibilityOfElementLocated(accountDeletedHeading)
-            );
-            System.out.println("Account deleted heading found: " + heading.getText());
-            return heading.isDisplayed();
+            String text = deletedHeadingText();
+            System.out.println("Account deleted heading found: " + text);
+            return true;
 
         } catch (Exception e) {
             System.err.println("Account deleted heading not found: " + e.getMessage());
@@ -140,17 +134,31 @@ public class DeleteAccount {
      */
     public String getDeletionMessage() {
         try {
-            dismissAds();
-            WebElement heading = wait.until(
-                    ExpectedConditions.visibilityOfElementLocated(accountDeletedHeading)
-            );
-            return heading.getText();
+            return deletedHeadingText();
         } catch (Exception e) {
             System.err.println("Could not get deletion message: " + e.getMessage());
             return "Account deletion message not found";
         }
     }
 
+    /**
+     * Text of the visible account-deleted heading. isAccountDeleted() and
+     * getDeletionMessage() share one lookup while the page stays unchanged.
+     */
+    private String deletedHeadingText() {
+        // Dismiss ads FIRST — this is why the h2 was never found before.
+        // The ad overlay was sitting on top, and the wait kept timing out
+        // trying to find an element that was technically present but hidden behind the ad.
+        // Done before the cached query, and only when it will really run: removing ads
+        // changes the page, so it would throw any cached result away.
+        String key = "account-deleted heading";
+        if (!PageCache.isCached(driver, key)) {
+            dismissAds();
+        }
+        return PageCache.query(driver, key,
+                () -> wait.until(ExpectedConditions.visibilityOfElementLocated(accountDeletedHeading)).getText());
+    }
+
     /**
      * Click Continue after account deletion to return to home.
      */
@@ -6,6 +6,7 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.PageSnapshot;
 
 import java.time.Duration;
 
@@ -19,6 +20,11 @@ public class OrderSuccess {
     private By continueButton = By.cssSelector("a[data-qa='continue-button']");
     private By downloadInvoiceButton = By.xpath("//a[contains(@href,'/download_invoice')]");
 
+    // Same elements as CSS, for reads from a PageSnapshot
+    private static final String ORDER_PLACED_CSS = "h2[data-qa='order-placed']";
+    private static final String CONTINUE_CSS = "a[data-qa='continue-button']";
+    private static final String SUCCESS_MESSAGE_CSS = "p:containsOwn(Congratulations)";
+
     public OrderSuccess(WebDriver driver) {
         this.driver = driver;
         this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
@@ -51,17 +57,26 @@ public class OrderSuccess {
         } catch (Exception ignored) {}
     }
 
+    /**
+     * One snapshot of the success page; the checks below read it without further calls
+     * as long as the page doesn't change.
+     */
+    private PageSnapshot snapshot() {
+        return PageSnapshot.of(driver);
+    }
+
     /**
      * Verify order was placed successfully
      * @return true if "Order Placed!" heading is visible
      */
     public boolean isOrderPlaced() {
         try {
-            WebElement heading = wait.until(ExpectedConditions.presenceOfElementLocated(orderPlacedHeading));
-            boolean isVisible = heading.isDisplayed();
+            wait.until(ExpectedConditions.presenceOfElementLocated(orderPlacedHeading));
+            PageSnapshot page = snapshot();
+            boolean isVisible = page.isVisible(ORDER_PLACED_CSS);
 
             if (isVisible) {
-                String text = heading.getText();
+                String text = page.text(ORDER_PLACED_CSS);
                 System.out.println("\n>>> Order Success Page");
                 System.out.println("Heading: " + text);
             }
@@ -79,8 +94,8 @@ public class OrderSuccess {
      */
     public String getSuccessMessage() {
         try {
-            WebElement message = driver.findElement(By.xpath("//p[contains(text(),'Congratulations')]"));
-            return message.getText();
+            String message = snapshot().text(SUCCESS_MESSAGE_CSS);
+            return message == null ? "" : message;
         } catch (Exception e) {
             return "";
         }
@@ -125,8 +140,7 @@ public class OrderSuccess {
      */
     public boolean isContinueButtonVisible() {
         try {
-            WebElement button = driver.findElement(continueButton);
-            return button.isDisplayed();
+            return snapshot().isVisible(CONTINUE_CSS);
         } catch (Exception e) {
             return false;
         }
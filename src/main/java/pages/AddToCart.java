@@ -1,14 +1,27 @@
 package pages;
 
+import config.ConfigLoader;
 import org.openqa.selenium.By;
 import org.openqa.selenium.JavascriptExecutor;
+import org.jsoup.nodes.Element;
 import org.openqa.selenium.Keys;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import runner.ScenarioResult;
+import runner.ShardPlanner;
+import runner.ShardResults;
+import utils.LiveElements;
+import utils.Locators;
+import utils.Modals;
+import utils.PageCache;
+import utils.PageSnapshot;
+import utils.Waits;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 public class AddToCart {
@@ -16,8 +29,11 @@ public class AddToCart {
     private WebDriver driver;
     private WebDriverWait wait;
 
-    private By continueShoppingButton = By.cssSelector("button.close-modal[data-dismiss='modal']");
-    private By modalDialog = By.id("cartModal");
+    private static final Locators.Chain CONTINUE_SHOPPING = Locators.chain("continue-shopping",
+            By.cssSelector("button.close-modal[data-dismiss='modal']"),
+            By.xpath("//button[contains(text(),'Continue Shopping')]"));
+    private static final String CART_MODAL = "cartModal";
+    private static final String CHECKOUT_MODAL = "checkoutModal";
     private By cartLink = By.xpath("//a[contains(@href,'/view_cart')]");
 
     public AddToCart(WebDriver driver) {
@@ -42,13 +58,14 @@ public class AddToCart {
     /**
      * Checks whether the current page shows a logged-in state.
      * automationexercise.com displays "Logged in as ..." in the header when authenticated.
+     * Repeat checks on an unchanged page are answered from PageCache.
      */
     public boolean isLoggedIn() {
         try {
-            List<WebElement> loggedIn = driver.findElements(
+            List<WebElement> loggedIn = PageCache.findElements(driver,
                     By.xpath("//a[contains(text(),'Logged in as')]")
             );
-            List<WebElement> signupLogin = driver.findElements(
+            List<WebElement> signupLogin = PageCache.findElements(driver,
                     By.xpath("//a[contains(text(),'Signup') or contains(text(),'Login')]")
             );
 
@@ -111,14 +128,12 @@ public class AddToCart {
         highlight(btn);
 
         // JS click — product-overlay div intercepts normal clicks
+        Modals.track(driver);
         JavascriptExecutor js = (JavascriptExecutor) driver;
         js.executeScript("arguments[0].click();", btn);
 
         System.out.println("  Clicked. Waiting for modal...");
-        Thread.sleep(1500);
-
         clickContinueShopping();
-        Thread.sleep(800);
     }
 
     // ─────────────────────────────────────────────────────────
@@ -130,15 +145,15 @@ public class AddToCart {
 
         String currentUrl = driver.getCurrentUrl();
         String baseUrl = currentUrl.split("/")[0] + "//" + currentUrl.split("/")[2];
-        driver.get(baseUrl + "/product_details/" + productId);
-        Thread.sleep(2000);
+        Waits.navigate(driver, baseUrl + "/product_details/" + productId);
 
         System.out.println("  URL=" + driver.getCurrentUrl());
 
         // Scroll directly to quantity input (NOT scrollToAllProductsHeading — that h2 doesn't exist here)
-        WebElement qtyInput = wait.until(
-                ExpectedConditions.presenceOfElementLocated(By.id("quantity"))
-        );
+        // Held live: the reads and writes below re-find it if the page re-renders it
+        By qtyLocator = By.id("quantity");
+        WebElement qtyInput = LiveElements.wrap(driver, qtyLocator,
+                wait.until(ExpectedConditions.presenceOfElementLocated(qtyLocator)));
         scrollToProduct(qtyInput);
         Thread.sleep(400);
 
@@ -172,40 +187,33 @@ public class AddToCart {
         }
 
         // Click Add to cart
-        WebElement addBtn = wait.until(
-                ExpectedConditions.elementToBeClickable(By.cssSelector("button.cart"))
-        );
+        By addLocator = By.cssSelector("button.cart");
+        WebElement addBtn = LiveElements.wrap(driver, addLocator,
+                wait.until(ExpectedConditions.elementToBeClickable(addLocator)));
         scrollToProduct(addBtn);
         Thread.sleep(300);
 
         // Highlight Add to Cart button
         highlight(addBtn);
 
+        Modals.track(driver);
         addBtn.click();
 
         System.out.println("  Clicked. Waiting for modal...");
-        Thread.sleep(1500);
-
         clickContinueShopping();
-        Thread.sleep(800);
     }
 
 
     public void clickContinueShopping() {
         try {
-            System.out.println("  Waiting for modal...");
-            wait.until(ExpectedConditions.visibilityOfElementLocated(modalDialog));
+            // Returns on shown.bs.modal — the fade is over and the button takes clicks
+            if (!Modals.awaitShown(driver, CART_MODAL, Duration.ofSeconds(15))) {
+                throw new TimeoutException("#" + CART_MODAL + " not shown within 15 s");
+            }
             System.out.println("  ✓ Modal visible");
-            Thread.sleep(500);
 
-            WebElement btn;
-            try {
-                btn = wait.until(ExpectedConditions.elementToBeClickable(continueShoppingButton));
-            } catch (Exception e) {
-                btn = wait.until(ExpectedConditions.elementToBeClickable(
-                        By.xpath("//button[contains(text(),'Continue Shopping')]")
-                ));
-            }
+            // Both candidates probed in one script; the one that usually wins goes first
+            WebElement btn = Locators.findClickable(driver, CONTINUE_SHOPPING, Duration.ofSeconds(15));
 
             // Highlight Continue Shopping button
             highlight(btn);
@@ -213,7 +221,9 @@ public class AddToCart {
             btn.click();
             System.out.println("  ✓ Clicked Continue Shopping");
 
-            wait.until(ExpectedConditions.invisibilityOfElementLocated(modalDialog));
+            if (!Modals.awaitHidden(driver, CART_MODAL, Duration.ofSeconds(15))) {
+                throw new TimeoutException("#" + CART_MODAL + " still open 15 s after Continue Shopping");
+            }
             System.out.println("  ✓ Modal closed");
 
         } catch (Exception e) {
@@ -225,7 +235,7 @@ public class AddToCart {
                                 "if(b) b.click();" +
                                 "else { var m=document.getElementById('cartModal'); if(m) m.style.display='none'; }"
                 );
-                Thread.sleep(600);
+                Modals.awaitHidden(driver, CART_MODAL, Duration.ofSeconds(2));
                 System.out.println("  ✓ Modal closed via JS fallback");
             } catch (Exception e2) {
                 System.err.println("  ✗ JS fallback: " + e2.getMessage());
@@ -238,15 +248,18 @@ public class AddToCart {
     // ─────────────────────────────────────────────────────────
 
     /**
-     * Adds all products from the JSON file to cart.
+     * Adds the products from the JSON file to cart — all of them, or with
+     * -Dshard.count > 1 only this shard's share (see ShardPlanner). Each product's
+     * outcome and duration go to target/shards/shard-<index>.json for ShardResults.
      * @return number of products successfully added
      * @throws RuntimeException if session is lost OR zero products were added
      */
     public int addProductsFromJson(String jsonFileName, String baseUrl) throws InterruptedException {
 
-        List<Product> products = ProductReader.readProductsFromJson(jsonFileName);
+        List<Product> products = thisShard(ProductReader.readProductsFromJson(jsonFileName));
         if (products.isEmpty()) {
-            throw new RuntimeException("No products in " + jsonFileName);
+            throw new RuntimeException("No products in " + jsonFileName + " for shard "
+                    + ShardPlanner.currentShardIndex() + " of " + ShardPlanner.currentShardCount());
         }
 
         System.out.println("\n" + "=".repeat(60));
@@ -255,9 +268,8 @@ public class AddToCart {
         System.out.println("  Before nav — URL   : " + driver.getCurrentUrl());
         System.out.println("  Before nav — title : " + driver.getTitle());
 
-        // Navigate to products page
-        driver.get(baseUrl + "/products");
-        Thread.sleep(2500);
+        // Navigate to products page — returns once the product grid is there
+        Waits.navigate(driver, baseUrl + "/products");
 
         System.out.println("  After nav  — URL   : " + driver.getCurrentUrl());
         System.out.println("  After nav  — title : " + driver.getTitle());
@@ -274,9 +286,11 @@ public class AddToCart {
 
         int successCount = 0;
         int failCount   = 0;
+        List<ScenarioResult> results = new ArrayList<>();
 
         for (int i = 0; i < products.size(); i++) {
             Product p = products.get(i);
+            long start = System.nanoTime();
 
             System.out.println("\n" + "─".repeat(60));
             System.out.println("PRODUCT " + (i+1) + "/" + products.size()
@@ -288,20 +302,25 @@ public class AddToCart {
                     addProductWithQuantity(p.getProductId(), p.getQuantity());
 
                     // Back to listing for next iteration
-                    driver.get(baseUrl + "/products");
-                    Thread.sleep(2000);
+                    Waits.navigate(driver, baseUrl + "/products");
                 } else {
                     addProductToCart(p.getProductId());
                 }
 
                 System.out.println("✓✓✓ " + p.getProductName() + " added");
                 successCount++;
+                results.add(new ScenarioResult(ShardPlanner.productScenarioId(p), ConfigLoader.getBrowser(),
+                        ScenarioResult.Status.PASSED, (System.nanoTime() - start) / 1_000_000, null));
 
             } catch (Exception e) {
                 System.err.println("✗✗✗ " + p.getProductName() + " FAILED: " + e.getMessage());
                 failCount++;
+                results.add(new ScenarioResult(ShardPlanner.productScenarioId(p), ConfigLoader.getBrowser(),
+                        ScenarioResult.Status.FAILED, (System.nanoTime() - start) / 1_000_000,
+                        e.getClass().getSimpleName() + ": " + e.getMessage()));
             }
         }
+        ShardResults.writePartial(ShardResults.DEFAULT_DIR, ShardPlanner.currentShardIndex(), results);
 
         System.out.println("\n" + "=".repeat(60));
         System.out.println("DONE | success=" + successCount + " | failed=" + failCount);
@@ -327,6 +346,8 @@ public class AddToCart {
             js.executeScript("window.scrollTo(0,0)");
             Thread.sleep(600);
 
+            String url = driver.getCurrentUrl();
+            String base = url.split("/")[0] + "//" + url.split("/")[2];
             try {
                 WebElement btn = wait.until(ExpectedConditions.elementToBeClickable(cartLink));
 
@@ -334,14 +355,13 @@ public class AddToCart {
                 highlight(btn);
 
                 btn.click();
+                wait.until(ExpectedConditions.urlContains("/view_cart"));
+                Waits.awaitReady(driver, base + "/view_cart");
                 System.out.println("  ✓ cart (click)");
             } catch (Exception e) {
-                String url = driver.getCurrentUrl();
-                String base = url.split("/")[0] + "//" + url.split("/")[2];
-                driver.get(base + "/view_cart");
+                Waits.navigate(driver, base + "/view_cart");
                 System.out.println("  ✓ cart (direct URL)");
             }
-            Thread.sleep(1500);
         } catch (Exception e) {
             System.err.println("  ✗ viewCart: " + e.getMessage());
         }
@@ -355,32 +375,20 @@ public class AddToCart {
         try {
             Thread.sleep(1000);
 
-            List<WebElement> rows = driver.findElements(
-                    By.cssSelector("#cart_info_table tbody tr")
-            );
-            rows = rows.stream()
-                    .filter(r -> {
-                        String c = r.getAttribute("class");
-                        return c == null || !c.contains("cart_menu");
-                    })
-                    .toList();
+            List<CartLine> lines = readCartLines();
 
             System.out.println("\n>>> Cart Verification");
-            System.out.println("  Items   : " + rows.size());
+            System.out.println("  Items   : " + lines.size());
             System.out.println("  URL     : " + driver.getCurrentUrl());
             System.out.println("  Title   : " + driver.getTitle());
             System.out.println("  LoggedIn: " + isLoggedIn());
 
-            for (WebElement row : rows) {
-                try {
-                    String name  = row.findElement(By.cssSelector("td.cart_description h4 a")).getText();
-                    String qty   = row.findElement(By.cssSelector("td.cart_quantity button")).getText().trim();
-                    String total = row.findElement(By.cssSelector("td.cart_total p")).getText();
-                    System.out.println("    → " + name + " | qty=" + qty + " | " + total);
-                } catch (Exception ignored) {}
+            for (CartLine line : lines) {
+                System.out.println("    → " + line.getProductName() + " | qty=" + line.getQuantity()
+                        + " | Rs. " + line.getTotal());
             }
 
-            return rows.size() > 0;
+            return !lines.isEmpty();
 
         } catch (Exception e) {
             System.err.println("  ✗ isCartNotEmpty: " + e.getMessage());
@@ -388,6 +396,62 @@ public class AddToCart {
         }
     }
 
+    /**
+     * Every product row of #cart_info_table as a typed line, from one page snapshot.
+     * @throws IllegalArgumentException if a row's price, quantity or total can't be parsed
+     */
+    public List<CartLine> readCartLines() {
+        PageSnapshot cart = PageSnapshot.of(driver, "#cart_info_table");
+        List<CartLine> lines = new ArrayList<>();
+        for (Element row : cart.select("tbody tr")) {
+            String name = PageSnapshot.text(row.selectFirst("td.cart_description h4 a"));
+            if (row.hasClass("cart_menu") || name == null) {
+                continue;
+            }
+            String quantity = PageSnapshot.text(row.selectFirst("td.cart_quantity button"));
+            try {
+                lines.add(new CartLine(
+                        row.id().replaceFirst("^product-", ""),
+                        name,
+                        CartLine.parseMoney(PageSnapshot.text(row.selectFirst("td.cart_price p"))),
+                        Integer.parseInt(quantity == null ? "" : quantity.trim()),
+                        CartLine.parseMoney(PageSnapshot.text(row.selectFirst("td.cart_total p")))));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cart row '" + name + "' has quantity '" + quantity + "'", e);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Compares the cart page with the products in the JSON file: names, unit prices,
+     * quantities and line totals, all in one pass over one snapshot.
+     */
+    public CartDiff reconcileCart(String jsonFileName) {
+        CartDiff diff = CartDiff.between(thisShard(ProductReader.readProductsFromJson(jsonFileName)), readCartLines());
+        System.out.println("  Reconciliation: " + diff);
+        return diff;
+    }
+
+    // The products this JVM's shard owns; every product when not sharded
+    private static List<Product> thisShard(List<Product> products) {
+        if (ShardPlanner.currentShardCount() <= 1) {
+            return products;
+        }
+        List<String> ids = new ArrayList<>();
+        for (Product p : products) {
+            ids.add(ShardPlanner.productScenarioId(p));
+        }
+        List<String> mine = ShardPlanner.forCurrentJvm().scenariosForShard(ids, ShardPlanner.currentShardIndex());
+        List<Product> owned = new ArrayList<>();
+        for (Product p : products) {
+            if (mine.contains(ShardPlanner.productScenarioId(p))) {
+                owned.add(p);
+            }
+        }
+        return owned;
+    }
+
     // ─────────────────────────────────────────────────────────
     // PROCEED TO CHECKOUT
     // ─────────────────────────────────────────────────────────
@@ -405,15 +469,14 @@ public class AddToCart {
             // Highlight checkout button
             highlight(btn);
 
+            Modals.track(driver);
             btn.click();
             System.out.println("  ✓ Clicked");
 
-            Thread.sleep(2000);
-
-            // Checkout modal fires if not logged in
-            try {
-                By modal = By.id("checkoutModal");
-                wait.until(ExpectedConditions.visibilityOfElementLocated(modal));
+            // Checkout modal fires if not logged in. The click handler opens it
+            // synchronously, so one look tells whether there is anything to wait for.
+            if (Modals.isPending(driver, CHECKOUT_MODAL)) {
+                Modals.awaitShown(driver, CHECKOUT_MODAL, Duration.ofSeconds(15));
                 System.out.println("  ⚠ Checkout modal appeared");
 
                 WebElement dismiss = wait.until(
@@ -426,9 +489,9 @@ public class AddToCart {
                 highlight(dismiss);
 
                 dismiss.click();
-                wait.until(ExpectedConditions.invisibilityOfElementLocated(modal));
+                Modals.awaitHidden(driver, CHECKOUT_MODAL, Duration.ofSeconds(15));
                 System.out.println("  ✓ Dismissed");
-            } catch (Exception e) {
+            } else {
                 System.out.println("  ✓ No modal — checkout proceeding");
             }
 
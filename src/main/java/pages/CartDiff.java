@@ -0,0 +1,109 @@
+package pages;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Differences between the cart page and the products a test meant to add.
+ *
+ *   - missing     products from the JSON that have no cart line
+ *   - unexpected  cart lines for products not in the JSON
+ *   - mismatches  lines whose name, unit price, quantity or total disagree with the
+ *                 JSON, or whose total isn't unit price × quantity
+ *
+ * Products a run failed to add show up as missing; the cart's own numbers being
+ * wrong shows up as a mismatch.
+ */
+public class CartDiff {
+
+    private final List<String> missing = new ArrayList<>();
+    private final List<String> unexpected = new ArrayList<>();
+    private final List<String> mismatches = new ArrayList<>();
+
+    /**
+     * Compares cart lines against expected products in one pass. Products listed more
+     * than once are expected once with their quantities summed.
+     */
+    public static CartDiff between(List<Product> expected, List<CartLine> cart) {
+        CartDiff diff = new CartDiff();
+
+        Map<String, Product> wanted = new LinkedHashMap<>();
+        for (Product p : expected) {
+            Product merged = wanted.get(p.getProductId());
+            if (merged == null) {
+                wanted.put(p.getProductId(),
+                        new Product(p.getProductId(), p.getProductName(), p.getQuantity(), p.getPrice()));
+            } else {
+                merged.setQuantity(merged.getQuantity() + p.getQuantity());
+            }
+        }
+
+        for (CartLine line : cart) {
+            BigDecimal lineTotal = line.getUnitPrice().multiply(BigDecimal.valueOf(line.getQuantity()));
+            if (line.getTotal().compareTo(lineTotal) != 0) {
+                diff.mismatches.add(line.getProductName() + ": total " + line.getTotal()
+                        + " != " + line.getUnitPrice() + " x " + line.getQuantity());
+            }
+
+            Product p = wanted.remove(line.getProductId());
+            if (p == null) {
+                diff.unexpected.add(line.getProductName() + " (id " + line.getProductId() + ")");
+                continue;
+            }
+            if (p.getProductName() != null && !p.getProductName().equalsIgnoreCase(line.getProductName())) {
+                diff.mismatches.add("id " + p.getProductId() + ": name '" + line.getProductName()
+                        + "', expected '" + p.getProductName() + "'");
+            }
+            if (p.getPrice() != null && p.getPriceValue().compareTo(line.getUnitPrice()) != 0) {
+                diff.mismatches.add(line.getProductName() + ": price " + line.getUnitPrice()
+                        + ", expected " + p.getPriceValue());
+            }
+            if (p.getQuantity() != line.getQuantity()) {
+                diff.mismatches.add(line.getProductName() + ": quantity " + line.getQuantity()
+                        + ", expected " + p.getQuantity());
+            }
+        }
+
+        for (Product p : wanted.values()) {
+            diff.missing.add(p.getProductName() + " (id " + p.getProductId() + ")");
+        }
+        return diff;
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public List<String> getUnexpected() {
+        return unexpected;
+    }
+
+    public List<String> getMismatches() {
+        return mismatches;
+    }
+
+    /** True if the cart matches the expected products exactly. */
+    public boolean isEmpty() {
+        return missing.isEmpty() && unexpected.isEmpty() && mismatches.isEmpty();
+    }
+
+    /** True if a line in the cart disagrees with the JSON or with its own arithmetic. */
+    public boolean hasMismatches() {
+        return !mismatches.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        if (isEmpty()) {
+            return "CartDiff{no differences}";
+        }
+        return "CartDiff{" +
+                "missing=" + missing +
+                ", unexpected=" + unexpected +
+                ", mismatches=" + mismatches +
+                '}';
+    }
+}
@@ -0,0 +1,69 @@
+package pages;
+
+import java.math.BigDecimal;
+
+/**
+ * One row of #cart_info_table with its money values parsed.
+ */
+public class CartLine {
+
+    private final String productId;
+    private final String productName;
+    private final BigDecimal unitPrice;
+    private final int quantity;
+    private final BigDecimal total;
+
+    public CartLine(String productId, String productName, BigDecimal unitPrice, int quantity, BigDecimal total) {
+        this.productId = productId;
+        this.productName = productName;
+        this.unitPrice = unitPrice;
+        this.quantity = quantity;
+        this.total = total;
+    }
+
+    /**
+     * Parses a price as the site prints it ("Rs. 1500", "Rs. 1,500").
+     * @throws IllegalArgumentException if there is no number in it
+     */
+    public static BigDecimal parseMoney(String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("No price: null");
+        }
+        String digits = text.replaceAll("[^0-9.]", "").replaceAll("^\\.+|\\.+$", "");
+        if (digits.isEmpty()) {
+            throw new IllegalArgumentException("No price in '" + text + "'");
+        }
+        return new BigDecimal(digits);
+    }
+
+    public String getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public BigDecimal getUnitPrice() {
+        return unitPrice;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "CartLine{" +
+                "productId='" + productId + '\'' +
+                ", productName='" + productName + '\'' +
+                ", unitPrice=" + unitPrice +
+                ", quantity=" + quantity +
+                ", total=" + total +
+                '}';
+    }
+}
@@ -1,10 +1,11 @@
 package pages;
 
 import org.openqa.selenium.By;
-import org.openqa.selenium.NoSuchElementException;
-import org.openqa.selenium.support.ui.FluentWait;
+import org.openqa.selenium.TimeoutException;
 import utils.Actions;
+import utils.Waits;
 import Browser_utils.DriverManager;
+import Browser_utils.PageEvents;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import java.time.Duration;
@@ -38,7 +39,7 @@ public class LoginPage {
 
         // Use the unique email Signup actually used this run
         String email    = pages.Signup.getCurrentEmail();
-        String password = utils.jsonUtil.getValue("config/login.json", "password");
+        String password = utils.TestData.login().password;
 
         if (email == null || email.isEmpty()) {
             throw new RuntimeException(
@@ -58,13 +59,43 @@ public class LoginPage {
         passEl.clear();
         Actions.sendKeys(passwordInput, password);
 
+        // Mark before clicking so a fast response can't slip past the wait
+        PageEvents events = PageEvents.of(driver);
+        long mark = events != null ? events.mark() : 0;
+
         Actions.click(loginButton);
 
-        waitForLoginResponse();
+        if (!awaitLoginPageLoad(events, mark)) {
+            waitForLoginResponse();
+        }
     }
 
     /**
-     * Polls until either:
+     * BiDi path: blocks until the page the login form posts to has loaded, then checks once.
+     * Returns false (caller falls back to polling) without BiDi or if the outcome is unclear.
+     */
+    private boolean awaitLoginPageLoad(PageEvents events, long mark) {
+        if (events == null) {
+            return false;
+        }
+        String url = events.awaitPageLoad(mark, Duration.ofSeconds(10));
+        if (url == null) {
+            return false;
+        }
+        if (!url.contains("/login")) {
+            System.out.println("✓ Login succeeded — navigated to: " + url);
+            return true;
+        }
+        if (!DriverManager.getDriver().findElements(loginErrorMsg).isEmpty()) {
+            loginFailed = true;
+            System.out.println("✗ Login failed — site showed incorrect credentials error");
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Fallback without BiDi. Races, in one async script:
      *   - Page navigates away from /login  →  login succeeded
      *   - Error message appears            →  login failed (sets flag, does NOT throw)
      *
@@ -74,29 +105,18 @@ public class LoginPage {
     private void waitForLoginResponse() {
         WebDriver driver = DriverManager.getDriver();
 
-        new FluentWait<>(driver)
-                .withTimeout(Duration.ofSeconds(10))
-                .pollingEvery(Duration.ofMillis(500))
-                .ignoring(NoSuchElementException.class)
-                .until(d -> {
-                    // Success: navigated away from /login
-                    if (!d.getCurrentUrl().contains("/login")) {
-                        System.out.println("✓ Login succeeded — navigated to: " + d.getCurrentUrl());
-                        return true;
-                    }
-
-                    // Failure: site showed its error message
-                    try {
-                        d.findElement(loginErrorMsg);
-                        // Found the error — mark it and stop polling
-                        loginFailed = true;
-                        System.out.println("✗ Login failed — site showed incorrect credentials error");
-                        return true; // stop polling, don't throw
-                    } catch (NoSuchElementException e) {
-                        // Neither navigated nor error yet — keep polling
-                        return false;
-                    }
-                });
+        String outcome = Waits.race(driver, Duration.ofSeconds(10),
+                Waits.urlNotContains("success", "/login"),
+                Waits.textPresent("error", ".login-form", "Your email or password is incorrect"));
+
+        if ("success".equals(outcome)) {
+            System.out.println("✓ Login succeeded — navigated to: " + driver.getCurrentUrl());
+        } else if ("error".equals(outcome)) {
+            loginFailed = true;
+            System.out.println("✗ Login failed — site showed incorrect credentials error");
+        } else {
+            throw new TimeoutException("Login gave neither a new page nor an error within 10 s");
+        }
     }
 
     /**
@@ -6,6 +6,9 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.Clicks;
+import utils.Locators;
+import utils.Waits;
 
 import java.time.Duration;
 
@@ -14,9 +17,10 @@ public class PlaceOrder {
     private WebDriver driver;
     private WebDriverWait wait;
 
-    // Locators
-    private By placeOrderButton = By.xpath("//a[@href='/payment' and contains(@class,'check_out')]");
-    private By placeOrderButtonAlt = By.cssSelector("a.btn.btn-default.check_out");
+    // Locators — primary and alternative probed together (see Locators)
+    private static final Locators.Chain PLACE_ORDER = Locators.chain("place-order",
+            By.xpath("//a[@href='/payment' and contains(@class,'check_out')]"),
+            By.cssSelector("a.btn.btn-default.check_out"));
 
     public PlaceOrder(WebDriver driver) {
         this.driver = driver;
@@ -36,18 +40,6 @@ public class PlaceOrder {
         } catch (Exception ignored) {}
     }
 
-    /**
-     * Scroll element into view
-     */
-    private void scrollToElement(WebElement element) {
-        try {
-            ((JavascriptExecutor) driver).executeScript(
-                    "arguments[0].scrollIntoView({behavior:'smooth',block:'center'});",
-                    element
-            );
-        } catch (Exception ignored) {}
-    }
-
     /**
      * Click the Place Order button to proceed to payment
      */
@@ -55,48 +47,22 @@ public class PlaceOrder {
         try {
             System.out.println("\n>>> Clicking Place Order Button");
 
-            WebElement button = null;
+            WebElement button = Locators.find(driver, PLACE_ORDER, Duration.ofSeconds(10));
 
-            // Try primary locator, fall back to alt
-            try {
-                button = wait.until(ExpectedConditions.presenceOfElementLocated(placeOrderButton));
-            } catch (Exception e) {
-                System.out.println("Trying alternative locator...");
-                button = wait.until(ExpectedConditions.presenceOfElementLocated(placeOrderButtonAlt));
-            }
-
-            scrollToElement(button);
             highlight(button);
 
-            // Wait for clickable then click immediately
-            button = wait.until(ExpectedConditions.elementToBeClickable(button));
-            button.click();
-
+            // Native, overlay-removed or JS click — chosen by one occlusion probe
+            Clicks.click(driver, button);
             System.out.println("✓ Place Order button clicked");
 
             // Wait for navigation to actually complete instead of blind sleep
             wait.until(ExpectedConditions.urlContains("/payment"));
+            Waits.awaitReady(driver, driver.getCurrentUrl());
             System.out.println("Current URL: " + driver.getCurrentUrl());
 
         } catch (Exception e) {
             System.err.println("✗ Failed to click Place Order: " + e.getMessage());
-            e.printStackTrace();
-
-            // JavaScript click fallback
-            try {
-                System.out.println("Attempting JavaScript click fallback...");
-                WebElement button = driver.findElement(placeOrderButton);
-                scrollToElement(button);
-                highlight(button);
-                ((JavascriptExecutor) driver).executeScript("arguments[0].click();", button);
-                System.out.println("✓ Place Order clicked via JavaScript");
-
-                // Same here — wait for URL change, not a fixed timer
-                wait.until(ExpectedConditions.urlContains("/payment"));
-            } catch (Exception e2) {
-                System.err.println("✗ JavaScript fallback also failed: " + e2.getMessage());
-                throw new RuntimeException("Failed to click Place Order button", e2);
-            }
+            throw new RuntimeException("Failed to click Place Order button", e);
         }
     }
 
@@ -106,15 +72,9 @@ public class PlaceOrder {
      */
     public boolean isPlaceOrderButtonVisible() {
         try {
-            WebElement button = driver.findElement(placeOrderButton);
-            return button.isDisplayed();
+            return Locators.probe(driver, PLACE_ORDER, true) != null;
         } catch (Exception e) {
-            try {
-                WebElement button = driver.findElement(placeOrderButtonAlt);
-                return button.isDisplayed();
-            } catch (Exception e2) {
-                return false;
-            }
+            return false;
         }
     }
 
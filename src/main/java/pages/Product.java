@@ -1,7 +1,10 @@
 package pages;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.math.BigDecimal;
+
 public class Product {
 
     @JsonProperty("productId")
@@ -65,6 +68,12 @@ public class Product {
         this.price = price;
     }
 
+    /** The price as a number ("Rs. 500" → 500). */
+    @JsonIgnore
+    public BigDecimal getPriceValue() {
+        return CartLine.parseMoney(price);
+    }
+
     public boolean isDetailPage() {
         return isDetailPage;
     }
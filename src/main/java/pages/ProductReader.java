@@ -1,69 +1,31 @@
 package pages;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import utils.jsonUtil;
 
-import java.io.File;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
 public class ProductReader {
 
     /**
-     * Reads products from JSON file using Jackson
-     * @param fileName Name of the JSON file relative to resources (e.g., "testdata/products.json")
+     * Reads products from JSON file. The file is parsed once per run (jsonUtil's cache);
+     * every call returns new Product objects, so callers may change them.
+     * @param fileName Name of the JSON file relative to resources (e.g., "testdata/products.json"),
+     *                 or a path on disk
      * @return List of Product objects
      */
     public static List<Product> readProductsFromJson(String fileName) {
-        List<Product> products = new ArrayList<>();
-
         try {
-            ObjectMapper mapper = new ObjectMapper();
-
-            // Try to read from resources folder first
-            InputStream is = ProductReader.class
-                    .getClassLoader()
-                    .getResourceAsStream(fileName);
-
-            JsonNode rootNode;
-
-            if (is != null) {
-                // Read from resources
-                rootNode = mapper.readTree(is);
-                System.out.println("Reading products from resources: " + fileName);
-            } else {
-                // Try to read from file system
-                File file = new File(fileName);
-                if (!file.exists()) {
-                    throw new RuntimeException("JSON file not found: " + fileName);
-                }
-                rootNode = mapper.readTree(file);
-                System.out.println("Reading products from file: " + fileName);
-            }
-
-            // Get the products array
-            JsonNode productsArray = rootNode.get("products");
-
-            if (productsArray == null || !productsArray.isArray()) {
-                throw new RuntimeException("Invalid JSON structure: 'products' array not found");
-            }
-
-            // Parse each product
-            for (JsonNode productNode : productsArray) {
-                Product product = mapper.treeToValue(productNode, Product.class);
-                products.add(product);
-            }
-
+            List<Product> products = products(jsonUtil.readJson(fileName));
             System.out.println("Successfully loaded " + products.size() + " products from JSON");
+            return products;
 
         } catch (Exception e) {
             System.err.println("Error reading products from JSON: " + e.getMessage());
             e.printStackTrace();
             throw new RuntimeException("Failed to read products from JSON", e);
         }
-
-        return products;
     }
 
     /**
@@ -72,36 +34,20 @@ public class ProductReader {
      * @return List of Product objects
      */
     public static List<Product> readProductsFromFilePath(String filePath) {
-        List<Product> products = new ArrayList<>();
-
-        try {
-            ObjectMapper mapper = new ObjectMapper();
-            File file = new File(filePath);
-
-            if (!file.exists()) {
-                throw new RuntimeException("JSON file not found at path: " + filePath);
-            }
-
-            JsonNode rootNode = mapper.readTree(file);
-            JsonNode productsArray = rootNode.get("products");
-
-            if (productsArray == null || !productsArray.isArray()) {
-                throw new RuntimeException("Invalid JSON structure: 'products' array not found");
-            }
-
-            for (JsonNode productNode : productsArray) {
-                Product product = mapper.treeToValue(productNode, Product.class);
-                products.add(product);
-            }
+        return readProductsFromJson(filePath);
+    }
 
-            System.out.println("Successfully loaded " + products.size() + " products from: " + filePath);
+    private static List<Product> products(JsonNode rootNode) {
+        JsonNode productsArray = rootNode.get("products");
 
-        } catch (Exception e) {
-            System.err.println("Error reading products from file path: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Failed to read products from file path", e);
+        if (productsArray == null || !productsArray.isArray()) {
+            throw new RuntimeException("Invalid JSON structure: 'products' array not found");
         }
 
+        List<Product> products = new ArrayList<>();
+        for (JsonNode productNode : productsArray) {
+            products.add(jsonUtil.convert(productNode, Product.class));
+        }
         return products;
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,12 @@
 package pages;
 
 import org.openqa.selenium.By;
-import org.openqa.selenium.NoSuchElementException;
-import org.openqa.selenium.support.ui.FluentWait;
 import utils.Actions;
+import utils.Waits;
 import Browser_utils.DriverManager;
+import Browser_utils.PageEvents;
 import org.openqa.selenium.WebDriver;
-import utils.jsonUtil;
+import utils.TestData;
 import java.time.Duration;
 
 public class Signup {
@@ -19,6 +19,9 @@ public class Signup {
     private final By emailExistsError = By.xpath(
             "//*[contains(text(),'Email Address already exist')]");
 
+    // Event sequence taken just before the signup form was submitted (see PageEvents)
+    private long submitMark = -1;
+
     // Stores the unique email we generated this run — LoginPage and Tests need this
     private static String currentEmail;
     private static String currentName;
@@ -36,8 +39,8 @@ public class Signup {
      * actual email used:  "testing123458_1769977955840@gmail.com"
      */
     public void fillSignupForm() {
-        currentName  = jsonUtil.getValue("config/signup.json", "Name");
-        String baseEmail = jsonUtil.getValue("config/signup.json", "Email_address");
+        currentName  = TestData.signup().name;
+        String baseEmail = TestData.signup().emailAddress;
 
         // Generate unique email: insert timestamp before the @
         currentEmail = generateUniqueEmail(baseEmail);
@@ -65,8 +68,8 @@ public class Signup {
         Actions.waitForElementVisible(nameInput);
 
         // Clear and fill with NEW unique email
-        currentName  = jsonUtil.getValue("config/signup.json", "Name");
-        String baseEmail = jsonUtil.getValue("config/signup.json", "Email_address");
+        currentName  = TestData.signup().name;
+        String baseEmail = TestData.signup().emailAddress;
         currentEmail = generateUniqueEmail(baseEmail);
 
         System.out.println("New unique email: " + currentEmail);
@@ -75,6 +78,7 @@ public class Signup {
         Actions.sendKeys(emailInput, currentEmail);
 
         // Click signup
+        markSubmit();
         Actions.click(signUpBtn);
 
         // This time it MUST succeed — email is brand new
@@ -90,21 +94,31 @@ public class Signup {
     }
 
     public void clickFinalSignupButton() {
+        markSubmit();
         Actions.click(signUpBtn);
     }
 
+    /**
+     * With BiDi, waits for the page the form posted to and checks it once. Otherwise
+     * races the account-details form against the error message. Either way a new
+     * signup returns as soon as the next page shows, not after the full 5 s.
+     */
     public boolean isEmailAlreadyExists() {
         WebDriver driver = DriverManager.getDriver();
-        try {
-            new FluentWait<>(driver)
-                    .withTimeout(Duration.ofSeconds(5))
-                    .pollingEvery(Duration.ofMillis(300))
-                    .ignoring(NoSuchElementException.class)
-                    .until(d -> d.findElement(emailExistsError));
-            return true;
-        } catch (Exception e) {
-            return false;
+
+        PageEvents events = PageEvents.of(driver);
+        if (events != null && submitMark >= 0) {
+            String url = events.awaitPageLoad(submitMark, Duration.ofSeconds(5));
+            submitMark = -1;
+            if (url != null) {
+                return !driver.findElements(emailExistsError).isEmpty();
+            }
         }
+
+        String outcome = Waits.race(driver, Duration.ofSeconds(5),
+                Waits.present("details", "input[data-qa='password']"),
+                Waits.textPresent("exists", ".signup-form", "Email Address already exist"));
+        return "exists".equals(outcome);
     }
 
     // =========================================================================
@@ -125,6 +139,11 @@ public class Signup {
     // PRIVATE HELPERS
     // =========================================================================
 
+    private void markSubmit() {
+        PageEvents events = PageEvents.of(DriverManager.getDriver());
+        submitMark = events != null ? events.mark() : -1;
+    }
+
     /**
      * Takes "testing123458@gmail.com" and returns "testing123458_1769977955840@gmail.com"
      * The timestamp makes it unique every single run — no collisions ever.
@@ -3,12 +3,12 @@ package pages;
 
 import org.openqa.selenium.By;
 import utils.Actions;
-import utils.jsonUtil;
+import utils.TestData;
 
 public class SignupDetails {
 
-    // JSON file path (make sure the file name matches exactly)
-    private final String dataFile = "config/Signupdetails.json";
+    // config/Signupdetails.json, parsed and validated once per run
+    private final TestData.SignupDetails data = TestData.signupDetails();
 
     // Title
     private final By titleMr  = By.id("id_gender1");
@@ -41,9 +41,7 @@ public class SignupDetails {
     // ----------------- Page Methods -----------------
 
     public void selectTitleFromJson() {
-        String title = jsonUtil.getValue(dataFile, "Title");
-
-        if (title.equalsIgnoreCase("Mr")) {
+        if (data.title.equalsIgnoreCase("Mr")) {
             Actions.click(titleMr);
         } else {
             Actions.click(titleMrs);
@@ -51,36 +49,33 @@ public class SignupDetails {
     }
 
     public void enterPasswordFromJson() {
-        Actions.sendKeys(passwordInput, jsonUtil.getValue(dataFile, "Password"));
+        Actions.sendKeys(passwordInput, data.password);
     }
 
     public void selectDobFromJson() {
-        Actions.selectByValue(daysDropdown,   jsonUtil.getValue(dataFile, "DOB_Day"));
-        Actions.selectByValue(monthsDropdown, jsonUtil.getValue(dataFile, "DOB_Month"));
-        Actions.selectByValue(yearsDropdown,  jsonUtil.getValue(dataFile, "DOB_Year"));
+        Actions.selectByValue(daysDropdown,   data.dobDay);
+        Actions.selectByValue(monthsDropdown, data.dobMonth);
+        Actions.selectByValue(yearsDropdown,  data.dobYear);
     }
 
     public void setNewsletterFromJson() {
-        boolean newsletter = Boolean.parseBoolean(jsonUtil.getValue(dataFile, "Newsletter"));
-        boolean offers     = Boolean.parseBoolean(jsonUtil.getValue(dataFile, "Offers"));
-
-        Actions.setCheckbox(newsletterCheckbox, newsletter);
-        Actions.setCheckbox(offersCheckbox, offers);
+        Actions.setCheckbox(newsletterCheckbox, data.newsletter);
+        Actions.setCheckbox(offersCheckbox, data.offers);
     }
 
     public void fillAddressFromJson() {
-        Actions.sendKeys(firstNameInput, jsonUtil.getValue(dataFile, "First_name"));
-        Actions.sendKeys(lastNameInput,  jsonUtil.getValue(dataFile, "Last_name"));
-        Actions.sendKeys(companyInput,   jsonUtil.getValue(dataFile, "Company"));
-        Actions.sendKeys(address1Input,  jsonUtil.getValue(dataFile, "Address"));
-        Actions.sendKeys(address2Input,  jsonUtil.getValue(dataFile, "Address2"));
-
-        Actions.selectByVisibleText(countryDropdown, jsonUtil.getValue(dataFile, "Country"));
-
-        Actions.sendKeys(stateInput,   jsonUtil.getValue(dataFile, "State"));
-        Actions.sendKeys(cityInput,    jsonUtil.getValue(dataFile, "City"));
-        Actions.sendKeys(zipcodeInput, jsonUtil.getValue(dataFile, "Zipcode"));
-        Actions.sendKeys(mobileInput,  jsonUtil.getValue(dataFile, "Mobile_Number"));
+        Actions.sendKeys(firstNameInput, data.firstName);
+        Actions.sendKeys(lastNameInput,  data.lastName);
+        Actions.sendKeys(companyInput,   data.company);
+        Actions.sendKeys(address1Input,  data.address);
+        Actions.sendKeys(address2Input,  data.address2);
+
+        Actions.selectByVisibleText(countryDropdown, data.country);
+
+        Actions.sendKeys(stateInput,   data.state);
+        Actions.sendKeys(cityInput,    data.city);
+        Actions.sendKeys(zipcodeInput, data.zipcode);
+        Actions.sendKeys(mobileInput,  data.mobileNumber);
     }
 
     public void clickCreateAccount() {
@@ -6,6 +6,8 @@ import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.LiveElements;
+import utils.Waits;
 
 import java.time.Duration;
 import java.util.List;
@@ -113,16 +115,6 @@ public class ViewProduct {
         }
     }
 
-    /**
-     * Wait for the product grid to be fully rendered on the page.
-     * Call this after any navigation to /products before interacting with products.
-     */
-    private void waitForProductGridLoaded() {
-        wait.until(ExpectedConditions.presenceOfElementLocated(
-                By.cssSelector("a.add-to-cart[data-product-id]")
-        ));
-    }
-
     /**
      * Add product to cart from the product listing page.
      */
@@ -135,14 +127,14 @@ public class ViewProduct {
             By addToCartLocator = By.cssSelector("a.add-to-cart[data-product-id='" + productId + "']");
 
             // Scroll to the specific button, not just "down 500px"
-            WebElement addToCartButton = wait.until(ExpectedConditions.presenceOfElementLocated(addToCartLocator));
+            WebElement addToCartButton = LiveElements.wrap(driver, addToCartLocator,
+                    wait.until(ExpectedConditions.elementToBeClickable(addToCartLocator)));
             scrollToElement(addToCartButton);
 
             // Dismiss again after scroll (ad may have re-appeared)
             dismissAds();
 
-            // Re-fetch — element may be stale after ad removal
-            addToCartButton = wait.until(ExpectedConditions.elementToBeClickable(addToCartLocator));
+            // Live reference — re-found on the spot if ad removal left it stale
             addToCartButton.click();
             System.out.println("Product " + productId + " added to cart");
 
@@ -165,32 +157,30 @@ public class ViewProduct {
             String productUrl = baseUrl + "/product_details/" + productId;
 
             System.out.println("Navigating to: " + productUrl);
-            driver.get(productUrl);
-
-            // Confirm we actually landed on the correct product page
-            wait.until(ExpectedConditions.urlContains("/product_details/" + productId));
+            // Returns once #quantity is interactive on the product page
+            Waits.navigate(driver, productUrl);
 
             scrollToTop();
             dismissAds();
 
             // Find quantity input
             By quantityLocator = By.id("quantity");
-            WebElement quantityInput = wait.until(ExpectedConditions.elementToBeClickable(quantityLocator));
+            WebElement quantityInput = LiveElements.wrap(driver, quantityLocator,
+                    wait.until(ExpectedConditions.elementToBeClickable(quantityLocator)));
             scrollToElement(quantityInput);
 
             dismissAds();
-            quantityInput = wait.until(ExpectedConditions.elementToBeClickable(quantityLocator));
             quantityInput.clear();
             quantityInput.sendKeys(String.valueOf(quantity));
             System.out.println("Set quantity to: " + quantity);
 
             // Click add to cart
             By addToCartLocator = By.cssSelector("button.cart");
-            WebElement addToCartButton = wait.until(ExpectedConditions.elementToBeClickable(addToCartLocator));
+            WebElement addToCartButton = LiveElements.wrap(driver, addToCartLocator,
+                    wait.until(ExpectedConditions.elementToBeClickable(addToCartLocator)));
             scrollToElement(addToCartButton);
 
             dismissAds();
-            addToCartButton = wait.until(ExpectedConditions.elementToBeClickable(addToCartLocator));
             addToCartButton.click();
 
             System.out.println("Product " + productId + " added with quantity: " + quantity);
@@ -233,8 +223,7 @@ public class ViewProduct {
     public void increaseQuantityInCart(String productId, int newQuantity) {
         try {
             String baseUrl = getBaseUrl();
-            driver.get(baseUrl + "/view_cart");
-            wait.until(ExpectedConditions.urlContains("/view_cart"));
+            Waits.navigate(driver, baseUrl + "/view_cart");
 
             scrollToTop();
             dismissAds();
@@ -277,9 +266,7 @@ public class ViewProduct {
                 return;
             }
 
-            driver.get(baseUrl + "/products");
-            wait.until(ExpectedConditions.urlContains("/products"));
-            waitForProductGridLoaded();
+            Waits.navigate(driver, baseUrl + "/products");
 
             for (Product product : products) {
                 System.out.println("\n--- Processing: " + product.getProductName() + " ---");
@@ -288,9 +275,7 @@ public class ViewProduct {
                     addProductWithQuantity(product.getProductId(), product.getQuantity());
 
                     // Back to products — wait for grid to fully render before next iteration
-                    driver.get(baseUrl + "/products");
-                    wait.until(ExpectedConditions.urlContains("/products"));
-                    waitForProductGridLoaded();
+                    Waits.navigate(driver, baseUrl + "/products");
                 } else {
                     addProductToCart(product.getProductId());
                 }
@@ -318,9 +303,7 @@ public class ViewProduct {
                 return;
             }
 
-            driver.get(baseUrl + "/products");
-            wait.until(ExpectedConditions.urlContains("/products"));
-            waitForProductGridLoaded();
+            Waits.navigate(driver, baseUrl + "/products");
 
             for (Product product : products) {
                 System.out.println("\n--- Processing: " + product.getProductName() + " ---");
@@ -328,9 +311,7 @@ public class ViewProduct {
                 if (product.isDetailPage() || product.getQuantity() > 1) {
                     addProductWithQuantity(product.getProductId(), product.getQuantity());
 
-                    driver.get(baseUrl + "/products");
-                    wait.until(ExpectedConditions.urlContains("/products"));
-                    waitForProductGridLoaded();
+                    Waits.navigate(driver, baseUrl + "/products");
                 } else {
                     addProductToCart(product.getProductId());
                 }
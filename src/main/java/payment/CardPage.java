@@ -1,58 +1,20 @@
 package payment;
 
-import org.openqa.selenium.By;
-import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import utils.Clicks;
+import utils.Waits;
 
 import java.time.Duration;
 
-public class CardPage {
-
-    private WebDriver driver;
-    private WebDriverWait wait;
-
-    // Locators
-    private By nameOnCardInput = By.cssSelector("input[name='name_on_card']");
-    private By cardNumberInput = By.cssSelector("input[name='card_number']");
-    private By cvcInput = By.cssSelector("input[name='cvc']");
-    private By expiryMonthInput = By.cssSelector("input[name='expiry_month']");
-    private By expiryYearInput = By.cssSelector("input[name='expiry_year']");
-    private By payButton = By.cssSelector("button[data-qa='pay-button']");
-    private By successMessage = By.id("success_message");
+/**
+ * Payment page actions. Locators, the batched field lookup and highlight/scroll come
+ * from PaymentForm, generated from src/main/resources/pages/payment.json.
+ */
+public class CardPage extends PaymentForm {
 
     public CardPage(WebDriver driver) {
-        this.driver = driver;
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(15));
-    }
-
-    /**
-     * Highlight element with black border
-     */
-    private void highlight(WebElement element) {
-        try {
-            ((JavascriptExecutor) driver).executeScript(
-                    "arguments[0].style.border='5px solid black';" +
-                            "arguments[0].style.boxShadow='0 0 10px black';",
-                    element
-            );
-            Thread.sleep(300);
-        } catch (Exception ignored) {}
-    }
-
-    /**
-     * Scroll element into view
-     */
-    private void scrollToElement(WebElement element) {
-        try {
-            ((JavascriptExecutor) driver).executeScript(
-                    "arguments[0].scrollIntoView({behavior:'smooth',block:'center'});",
-                    element
-            );
-            Thread.sleep(500);
-        } catch (Exception ignored) {}
+        super(driver);
     }
 
     /**
@@ -64,53 +26,19 @@ public class CardPage {
             System.out.println("\n>>> Filling Payment Form");
             System.out.println("Cardholder: " + cardInfo.getNameOnCard());
 
-            // Wait for form to be visible
-            wait.until(ExpectedConditions.presenceOfElementLocated(nameOnCardInput));
+            // All five inputs from one script call once the form is there
+            CardFields fields = awaitReady().cardFields();
 
-            // Fill Name on Card
-            WebElement nameField = driver.findElement(nameOnCardInput);
-            scrollToElement(nameField);
-            highlight(nameField);
-            nameField.clear();
-            nameField.sendKeys(cardInfo.getNameOnCard());
+            fill(fields.nameOnCard, cardInfo.getNameOnCard());
             System.out.println("✓ Entered name on card");
-            Thread.sleep(300);
-
-            // Fill Card Number
-            WebElement cardNumField = driver.findElement(cardNumberInput);
-            scrollToElement(cardNumField);
-            highlight(cardNumField);
-            cardNumField.clear();
-            cardNumField.sendKeys(cardInfo.getCardNumber());
+            fill(fields.cardNumber, cardInfo.getCardNumber());
             System.out.println("✓ Entered card number");
-            Thread.sleep(300);
-
-            // Fill CVC
-            WebElement cvcField = driver.findElement(cvcInput);
-            scrollToElement(cvcField);
-            highlight(cvcField);
-            cvcField.clear();
-            cvcField.sendKeys(cardInfo.getCvc());
+            fill(fields.cvc, cardInfo.getCvc());
             System.out.println("✓ Entered CVC");
-            Thread.sleep(300);
-
-            // Fill Expiry Month
-            WebElement monthField = driver.findElement(expiryMonthInput);
-            scrollToElement(monthField);
-            highlight(monthField);
-            monthField.clear();
-            monthField.sendKeys(cardInfo.getExpiryMonth());
+            fill(fields.expiryMonth, cardInfo.getExpiryMonth());
             System.out.println("✓ Entered expiry month");
-            Thread.sleep(300);
-
-            // Fill Expiry Year
-            WebElement yearField = driver.findElement(expiryYearInput);
-            scrollToElement(yearField);
-            highlight(yearField);
-            yearField.clear();
-            yearField.sendKeys(cardInfo.getExpiryYear());
+            fill(fields.expiryYear, cardInfo.getExpiryYear());
             System.out.println("✓ Entered expiry year");
-            Thread.sleep(300);
 
             System.out.println("✓ Payment form filled successfully");
 
@@ -121,6 +49,13 @@ public class CardPage {
         }
     }
 
+    private void fill(WebElement field, String value) {
+        scrollTo(field);
+        highlight(field);
+        field.clear();
+        field.sendKeys(value);
+    }
+
     /**
      * Fill payment form from JSON file
      * @param jsonFilePath Path to card_info.json file
@@ -137,57 +72,34 @@ public class CardPage {
         try {
             System.out.println("\n>>> Clicking Pay and Confirm Order Button");
 
-            WebElement button = wait.until(ExpectedConditions.elementToBeClickable(payButton));
-            scrollToElement(button);
+            WebElement button = payButton();
             highlight(button);
 
-            button.click();
+            // Native, overlay-removed or JS click — chosen by one occlusion probe
+            Clicks.click(driver, button);
             System.out.println("✓ Pay button clicked");
-            Thread.sleep(2000);
 
         } catch (Exception e) {
             System.err.println("✗ Failed to click pay button: " + e.getMessage());
-            e.printStackTrace();
-
-            // Try JavaScript click as fallback
-            try {
-                System.out.println("Attempting JavaScript click fallback...");
-                WebElement button = driver.findElement(payButton);
-                scrollToElement(button);
-                highlight(button);
-                ((JavascriptExecutor) driver).executeScript("arguments[0].click();", button);
-                System.out.println("✓ Pay button clicked via JavaScript");
-                Thread.sleep(2000);
-            } catch (Exception e2) {
-                throw new RuntimeException("Failed to click pay button", e2);
-            }
+            throw new RuntimeException("Failed to click pay button", e);
         }
     }
 
     /**
-     * Verify if payment was successful by checking success message
-     * @return true if success message is visible
+     * Verify if payment was successful: the success message shows, or the site has
+     * already moved on to /payment_done. Waits up to 5 s for either.
+     * @return true if one of them happened
      */
     public boolean isPaymentSuccessful() {
-        try {
-            Thread.sleep(2000);
-
-            // Check if success message is visible
-            WebElement message = wait.until(ExpectedConditions.presenceOfElementLocated(successMessage));
-
-            // Check if the element is displayed (not hidden)
-            boolean isVisible = message.isDisplayed();
-
-            if (isVisible) {
-                System.out.println("\n✓✓✓ SUCCESS: " + message.getText());
-            }
-
-            return isVisible;
-
-        } catch (Exception e) {
+        String outcome = Waits.race(driver, Duration.ofSeconds(5),
+                Waits.visible("message", "#success_message"),
+                Waits.urlContains("done", "/payment_done"));
+        if ("message".equals(outcome)) {
+            System.out.println("\n✓✓✓ SUCCESS: " + getSuccessMessage());
+        } else if (outcome == null) {
             System.out.println("Success message not found or not visible yet");
-            return false;
         }
+        return outcome != null;
     }
 
     /**
@@ -209,7 +121,7 @@ public class CardPage {
      */
     public String getSuccessMessage() {
         try {
-            WebElement message = driver.findElement(successMessage);
+            WebElement message = driver.findElement(SUCCESS_MESSAGE);
             if (message.isDisplayed()) {
                 return message.getText();
             }
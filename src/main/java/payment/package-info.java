@@ -0,0 +1,8 @@
+/**
+ * Checkout payment: card details from card_info.json, the payment form and its result.
+ * PaymentForm is generated from pages/payment.json.
+ */
+@GeneratePages("pages/payment.json")
+package payment;
+
+import codegen.GeneratePages;
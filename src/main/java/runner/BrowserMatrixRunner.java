@@ -0,0 +1,185 @@
+// BrowserMatrixRunner.java - Runs the same scenarios on every configured browser at once
+package runner;
+
+import Browser_utils.DriverManager;
+import config.ConfigLoader;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Cross-browser matrix in a single run.
+ *
+ * Each browser from the "browsers" list in info.json gets its own session (one
+ * DriverFactory.createDriver call per browser) and its own worker thread, and runs
+ * every scenario in order on that session. The browsers run side by side, so the
+ * whole matrix takes roughly as long as the slowest browser.
+ *
+ * Between scenarios the session may be recycled (see SessionRecycler), so each
+ * scenario is handed whatever DriverManager.getDriver() returns at that point.
+ *
+ * The report is keyed per browser instance: a browser listed twice shows up as
+ * "chrome" and "chrome#2". Every instance reports every scenario — a failed
+ * assertion fails only its own scenario, and scenarios that never ran (launch
+ * failure, lost session) are reported failed with the reason.
+ *
+ * Usage:
+ *      Map<String, Consumer<WebDriver>> scenarios = new LinkedHashMap<>();
+ *      scenarios.put("open-home", d -> d.get(ConfigLoader.getWebsiteUrl()));
+ *      Map<String, List<ScenarioResult>> report = BrowserMatrixRunner.fromConfig().run(scenarios);
+ *
+ * From the command line main() runs a smoke matrix (home page opens, title matches)
+ * on every configured browser and exits non-zero if any instance failed:
+ *
+ *      java -cp "target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *           runner.BrowserMatrixRunner
+ */
+public class BrowserMatrixRunner {
+
+    private final List<String> browsers;
+
+    public BrowserMatrixRunner(List<String> browsers) {
+        if (browsers == null || browsers.isEmpty()) {
+            throw new IllegalArgumentException("Browser matrix is empty.");
+        }
+        this.browsers = List.copyOf(browsers);
+    }
+
+    public static BrowserMatrixRunner fromConfig() {
+        return new BrowserMatrixRunner(ConfigLoader.getBrowsers());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, Consumer<WebDriver>> scenarios = new LinkedHashMap<>();
+        scenarios.put("open-home", driver -> {
+            driver.get(ConfigLoader.getWebsiteUrl());
+            if (!driver.getTitle().contains(ConfigLoader.getWebsiteName())) {
+                throw new AssertionError("Title '" + driver.getTitle() + "' does not contain '"
+                        + ConfigLoader.getWebsiteName() + "'");
+            }
+        });
+        boolean failed = fromConfig().run(scenarios).values().stream()
+                .flatMap(List::stream)
+                .anyMatch(r -> !r.isPassed());
+        System.exit(failed ? 1 : 0);
+    }
+
+    /**
+     * Runs all scenarios on all browsers.
+     * @param scenarios scenario ID → body, run in iteration order
+     * @return browser instance ("chrome", "chrome#2", ...) → one result per scenario, in the same order
+     */
+    public Map<String, List<ScenarioResult>> run(Map<String, Consumer<WebDriver>> scenarios) throws InterruptedException {
+        List<String> instances = instanceNames(browsers);
+        Map<String, List<ScenarioResult>> report = new LinkedHashMap<>();
+        for (String instance : instances) {
+            report.put(instance, Collections.synchronizedList(new ArrayList<>()));
+        }
+
+        List<ScenarioResult> sessions;
+        try (SuiteOrchestrator orchestrator = new SuiteOrchestrator(browsers.size(), 1)) {
+            for (int i = 0; i < browsers.size(); i++) {
+                String instance = instances.get(i);
+                List<ScenarioResult> results = report.get(instance);
+                orchestrator.submitBrowserScenario("matrix:" + instance, browsers.get(i),
+                        driver -> runAll(instance, scenarios, results));
+            }
+            // Submission order, so sessions.get(i) belongs to instances.get(i)
+            sessions = orchestrator.awaitAll();
+        }
+
+        // Whatever an instance didn't get to is failed with the reason it stopped
+        for (int i = 0; i < instances.size(); i++) {
+            ScenarioResult session = sessions.get(i);
+            String reason = session.isPassed() ? "Not run" : session.getError();
+            fillMissing(instances.get(i), scenarios, report.get(instances.get(i)), reason);
+        }
+
+        printReport(report, instances, sessions);
+        return report;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    private static void runAll(String instance, Map<String, Consumer<WebDriver>> scenarios,
+                               List<ScenarioResult> results) {
+        for (Map.Entry<String, Consumer<WebDriver>> scenario : scenarios.entrySet()) {
+            long start = System.nanoTime();
+            try {
+                scenario.getValue().accept(DriverManager.getDriver());
+                results.add(new ScenarioResult(scenario.getKey(), instance,
+                        ScenarioResult.Status.PASSED, (System.nanoTime() - start) / 1_000_000, null));
+            } catch (Throwable t) {
+                // AssertionError included — one failed check must not end the browser's run
+                System.err.println("✗ [" + instance + "] " + scenario.getKey() + ": " + t.getMessage());
+                results.add(new ScenarioResult(scenario.getKey(), instance,
+                        ScenarioResult.Status.FAILED, (System.nanoTime() - start) / 1_000_000,
+                        t.getClass().getSimpleName() + ": " + t.getMessage()));
+            }
+            try {
+                DriverManager.scenarioFinished();
+            } catch (RuntimeException e) {
+                // No usable session left; run() reports the rest as not run
+                fillMissing(instance, scenarios, results, "Session recycle failed: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private static void fillMissing(String instance, Map<String, Consumer<WebDriver>> scenarios,
+                                    List<ScenarioResult> results, String reason) {
+        synchronized (results) {
+            Set<String> reported = new HashSet<>();
+            for (ScenarioResult result : results) {
+                reported.add(result.getScenarioId());
+            }
+            for (String scenarioId : scenarios.keySet()) {
+                if (!reported.contains(scenarioId)) {
+                    results.add(new ScenarioResult(scenarioId, instance, ScenarioResult.Status.FAILED, 0, reason));
+                }
+            }
+        }
+    }
+
+    // chrome, firefox, chrome → chrome, firefox, chrome#2
+    private static List<String> instanceNames(List<String> browsers) {
+        Map<String, Integer> seen = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        for (String browser : browsers) {
+            int n = seen.merge(browser, 1, Integer::sum);
+            names.add(n == 1 ? browser : browser + "#" + n);
+        }
+        return names;
+    }
+
+    private static void printReport(Map<String, List<ScenarioResult>> report, List<String> instances,
+                                    List<ScenarioResult> sessions) {
+        System.out.println("\n" + "=".repeat(60));
+        System.out.println("BROWSER MATRIX");
+        System.out.println("=".repeat(60));
+        for (int i = 0; i < instances.size(); i++) {
+            List<ScenarioResult> results = report.get(instances.get(i));
+            long failed = results.stream().filter(r -> !r.isPassed()).count();
+            System.out.println("  " + instances.get(i)
+                    + " | passed=" + (results.size() - failed)
+                    + " | failed=" + failed
+                    + " | wall=" + sessions.get(i).getDurationMs() + " ms");
+            for (ScenarioResult result : results) {
+                if (!result.isPassed()) {
+                    System.out.println("      ✗ " + result.getScenarioId() + " → " + result.getError());
+                }
+            }
+        }
+        System.out.println("=".repeat(60) + "\n");
+    }
+}
@@ -0,0 +1,107 @@
+package runner;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public class ScenarioResult {
+
+    public enum Status { PASSED, FAILED }
+
+    @JsonProperty("scenarioId")
+    private String scenarioId;
+
+    // null for HTTP-only steps that never touched a browser
+    @JsonProperty("browser")
+    private String browser;
+
+    @JsonProperty("status")
+    private Status status;
+
+    @JsonProperty("durationMs")
+    private long durationMs;
+
+    @JsonProperty("error")
+    private String error;
+
+    // Part of durationMs spent waiting for a browser permit or Grid slot
+    @JsonProperty("queueWaitMs")
+    private long queueWaitMs;
+
+    // Default constructor required by Jackson
+    public ScenarioResult() {}
+
+    public ScenarioResult(String scenarioId, String browser, Status status, long durationMs, String error) {
+        this.scenarioId = scenarioId;
+        this.browser = browser;
+        this.status = status;
+        this.durationMs = durationMs;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public String getScenarioId() {
+        return scenarioId;
+    }
+
+    public void setScenarioId(String scenarioId) {
+        this.scenarioId = scenarioId;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    public void setBrowser(String browser) {
+        this.browser = browser;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public long getQueueWaitMs() {
+        return queueWaitMs;
+    }
+
+    public void setQueueWaitMs(long queueWaitMs) {
+        this.queueWaitMs = queueWaitMs;
+    }
+
+    // Derived from status; not written, or merge() couldn't read the shard files back
+    @JsonIgnore
+    public boolean isPassed() {
+        return status == Status.PASSED;
+    }
+
+    @Override
+    public String toString() {
+        return "ScenarioResult{" +
+                "scenarioId='" + scenarioId + '\'' +
+                ", browser='" + browser + '\'' +
+                ", status=" + status +
+                ", durationMs=" + durationMs +
+                (queueWaitMs > 0 ? ", queueWaitMs=" + queueWaitMs : "") +
+                (error != null ? ", error='" + error + '\'' : "") +
+                '}';
+    }
+}
@@ -0,0 +1,199 @@
+// ShardPlanner.java - Splits scenarios across JVMs/agents deterministically
+package runner;
+
+import com.google.common.hash.Hashing;
+import pages.Product;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Decides which scenarios belong to which shard.
+ *
+ * Every JVM runs the same planner over the same scenario list and the same timing
+ * profile, so they all agree on the split without talking to each other. Pick the
+ * local shard with -Dshard.index / -Dshard.count (defaults: 0 of 1 = run everything).
+ *
+ * The profile is never picked up implicitly: every agent must be given the same
+ * file with -Dshard.timings=<path to timings.json>. Without it (or if the file is
+ * missing) the plan is pure hash placement, which needs no shared input at all.
+ * Each JVM logs the profile's hash, so agents planning from different files show
+ * up as different hashes in the logs.
+ *
+ *      mvn test -Dshard.index=0 -Dshard.count=3 -Dshard.timings=ci/timings.json
+ *
+ *   - With a timing profile (see ShardResults.merge) scenarios are balanced by
+ *     historical duration: longest first, each onto the currently lightest shard.
+ *     All shards then finish at about the same time.
+ *   - Scenarios with no history are costed at the median known duration.
+ *   - Ties are broken by a stable murmur3 hash of the scenario ID, never by
+ *     HashMap order or input order, so the plan is identical on every machine.
+ *   - With an empty profile every scenario goes to shardOf(id).
+ */
+public class ShardPlanner {
+
+    // Used for scenarios when no timing profile exists at all
+    private static final long DEFAULT_DURATION_MS = 30_000;
+
+    private final int shardCount;
+    private final Map<String, Long> historicalMs;
+
+    public ShardPlanner(int shardCount, Map<String, Long> historicalMs) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("shardCount must be at least 1, was " + shardCount);
+        }
+        this.shardCount = shardCount;
+        this.historicalMs = historicalMs == null ? Map.of() : historicalMs;
+    }
+
+    /** Index of this JVM's shard, from -Dshard.index. */
+    public static int currentShardIndex() {
+        return Integer.getInteger("shard.index", 0);
+    }
+
+    /** Total number of shards, from -Dshard.count. */
+    public static int currentShardCount() {
+        return Integer.getInteger("shard.count", 1);
+    }
+
+    /** The planner for this JVM: -Dshard.count shards, balanced by the -Dshard.timings profile if given. */
+    public static ShardPlanner forCurrentJvm() {
+        return CurrentJvm.PLANNER;
+    }
+
+    // Built once, so the profile is read and its hash logged once per JVM
+    private static class CurrentJvm {
+        static final ShardPlanner PLANNER = create();
+
+        private static ShardPlanner create() {
+            String timings = System.getProperty("shard.timings", "").trim();
+            Map<String, Long> profile = Map.of();
+            if (timings.isEmpty()) {
+                System.out.println("Shard plan: hash placement (no -Dshard.timings given)");
+            } else if (!Files.isRegularFile(Paths.get(timings))) {
+                System.err.println("Shard plan: " + timings + " not found — hash placement");
+            } else {
+                profile = ShardResults.loadTimingFile(Paths.get(timings));
+                System.out.println("Shard plan: " + profile.size() + " timings from " + timings
+                        + " (profile " + profileHash(profile) + ")");
+            }
+            return new ShardPlanner(currentShardCount(), profile);
+        }
+    }
+
+    /** Stable scenario ID for one product row from products.json. */
+    public static String productScenarioId(Product product) {
+        return scenarioId("product", product.getProductId());
+    }
+
+    /** Stable scenario ID built from parts, e.g. scenarioId("checkout", "chrome", "account-2"). */
+    public static String scenarioId(String... parts) {
+        return String.join(":", parts);
+    }
+
+    /**
+     * Pure hash placement, ignoring durations. Useful when there is no timing profile
+     * and scenarios are roughly the same length.
+     */
+    public int shardOf(String scenarioId) {
+        return Math.floorMod(stableHash(scenarioId), shardCount);
+    }
+
+    /**
+     * Assigns every scenario to a shard. The returned lists keep the input's relative order.
+     */
+    public List<List<String>> plan(List<String> scenarioIds) {
+        if (historicalMs.isEmpty()) {
+            List<List<String>> shards = new ArrayList<>();
+            for (int shard = 0; shard < shardCount; shard++) {
+                shards.add(new ArrayList<>());
+            }
+            for (String id : scenarioIds) {
+                shards.get(shardOf(id)).add(id);
+            }
+            return shards;
+        }
+
+        long fallback = medianKnownDuration();
+
+        List<String> byCost = new ArrayList<>(scenarioIds);
+        byCost.sort(Comparator
+                .comparingLong((String id) -> historicalMs.getOrDefault(id, fallback)).reversed()
+                .thenComparingInt(ShardPlanner::stableHash)
+                .thenComparing(Comparator.naturalOrder()));
+
+        long[] load = new long[shardCount];
+        Map<String, Integer> assignment = new HashMap<>();
+        for (String id : byCost) {
+            int lightest = 0;
+            for (int shard = 1; shard < shardCount; shard++) {
+                if (load[shard] < load[lightest]) lightest = shard;
+            }
+            assignment.put(id, lightest);
+            load[lightest] += historicalMs.getOrDefault(id, fallback);
+        }
+
+        List<List<String>> shards = new ArrayList<>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            shards.add(new ArrayList<>());
+        }
+        for (String id : scenarioIds) {
+            shards.get(assignment.get(id)).add(id);
+        }
+        return shards;
+    }
+
+    /** The scenarios this shard should run. */
+    public List<String> scenariosForShard(List<String> scenarioIds, int shardIndex) {
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException(
+                    "shard.index " + shardIndex + " is outside 0.." + (shardCount - 1));
+        }
+        return plan(scenarioIds).get(shardIndex);
+    }
+
+    /** Expected wall time of each shard according to the timing profile. */
+    public long[] estimatedLoad(List<String> scenarioIds) {
+        long fallback = medianKnownDuration();
+        List<List<String>> shards = plan(scenarioIds);
+        long[] load = new long[shardCount];
+        for (int shard = 0; shard < shardCount; shard++) {
+            for (String id : shards.get(shard)) {
+                load[shard] += historicalMs.getOrDefault(id, fallback);
+            }
+        }
+        return load;
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    /** Short content hash of a timing profile, independent of map order. */
+    static String profileHash(Map<String, Long> profile) {
+        return Hashing.sha256()
+                .hashString(new TreeMap<>(profile).toString(), StandardCharsets.UTF_8)
+                .toString().substring(0, 12);
+    }
+
+    private static int stableHash(String scenarioId) {
+        return Hashing.murmur3_32_fixed().hashString(scenarioId, StandardCharsets.UTF_8).asInt();
+    }
+
+    private long medianKnownDuration() {
+        if (historicalMs.isEmpty()) {
+            return DEFAULT_DURATION_MS;
+        }
+        List<Long> known = new ArrayList<>(historicalMs.values());
+        Collections.sort(known);
+        return known.get(known.size() / 2);
+    }
+}
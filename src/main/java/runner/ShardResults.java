@@ -0,0 +1,188 @@
+// ShardResults.java - Writes per-shard partial results and merges them into one report
+package runner;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * File layout (all under target/shards by default):
+ *
+ *      shard-0.json ... shard-N.json   written by each shard at the end of its run
+ *      combined-report.json            written by merge(): totals, per-shard wall time, all results
+ *      timings.json                    written by merge(): scenarioId -> smoothed duration (ms),
+ *                                      not counting time spent queued for a browser
+ *
+ * CI copies the shard files from every agent into one directory, calls merge(),
+ * and publishes timings.json so the next run's ShardPlanner can balance by duration.
+ * Every agent of that run must be given the same copy with -Dshard.timings.
+ *
+ * How a sharded run fits together:
+ *
+ *      # on each agent (index 0..N-1) — AddToCart adds only this shard's products
+ *      mvn test -Dshard.index=0 -Dshard.count=3 -Dshard.timings=ci/timings.json
+ *
+ *      # after collecting every agent's target/shards/shard-*.json in one place
+ *      java -cp "target/classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout)" \
+ *           runner.ShardResults target/shards
+ */
+public class ShardResults {
+
+    public static final Path DEFAULT_DIR = Paths.get("target", "shards");
+
+    // New durations are blended with the previous profile so one slow run doesn't swing the plan
+    private static final double SMOOTHING = 0.5;
+
+    private static final Pattern SHARD_FILE = Pattern.compile("shard-(\\d+)\\.json");
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private ShardResults() {}
+
+    /** Merges the shard files in args[0] (default target/shards). */
+    public static void main(String[] args) {
+        merge(args.length > 0 ? Paths.get(args[0]) : DEFAULT_DIR);
+    }
+
+    /**
+     * Writes this shard's results to dir/shard-<index>.json.
+     */
+    public static Path writePartial(Path dir, int shardIndex, List<ScenarioResult> results) {
+        Path file = dir.resolve("shard-" + shardIndex + ".json");
+        try {
+            Files.createDirectories(dir);
+            mapper.writeValue(file.toFile(), results);
+            System.out.println("Wrote " + results.size() + " result(s) for shard " + shardIndex + " → " + file);
+            return file;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write shard results: " + file, e);
+        }
+    }
+
+    /**
+     * Merges every shard-*.json in dir into combined-report.json and refreshes timings.json.
+     * @return all results from all shards
+     */
+    public static List<ScenarioResult> merge(Path dir) {
+        List<ScenarioResult> all = new ArrayList<>();
+        Map<Integer, List<ScenarioResult>> byShard = new TreeMap<>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "shard-*.json")) {
+            for (Path file : files) {
+                Matcher name = SHARD_FILE.matcher(file.getFileName().toString());
+                if (!name.matches()) {
+                    System.err.println("Skipping " + file + ": not a shard-<index>.json file");
+                    continue;
+                }
+                int shardIndex = Integer.parseInt(name.group(1));
+                List<ScenarioResult> partial = mapper.readValue(file.toFile(),
+                        new TypeReference<List<ScenarioResult>>() {});
+                byShard.put(shardIndex, partial);
+                all.addAll(partial);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read shard results from: " + dir, e);
+        }
+
+        if (byShard.isEmpty()) {
+            throw new RuntimeException("No shard-*.json files found in: " + dir);
+        }
+
+        writeCombinedReport(dir, byShard, all);
+        writeTimings(dir, all);
+        return all;
+    }
+
+    /**
+     * Reads dir/timings.json. Returns an empty profile if there is none yet.
+     */
+    public static Map<String, Long> loadTimings(Path dir) {
+        return loadTimingFile(dir.resolve("timings.json"));
+    }
+
+    /**
+     * Reads a timing profile from an explicit path (-Dshard.timings). Empty if there is none.
+     */
+    public static Map<String, Long> loadTimingFile(Path file) {
+        if (!Files.exists(file)) {
+            return Map.of();
+        }
+        try {
+            return mapper.readValue(file.toFile(), new TypeReference<TreeMap<String, Long>>() {});
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable timing profile " + file + ": " + e.getMessage());
+            return Map.of();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    private static void writeCombinedReport(Path dir, Map<Integer, List<ScenarioResult>> byShard,
+                                            List<ScenarioResult> all) {
+        ObjectNode report = mapper.createObjectNode();
+        long failed = all.stream().filter(r -> !r.isPassed()).count();
+        report.put("total", all.size());
+        report.put("passed", all.size() - failed);
+        report.put("failed", failed);
+
+        ArrayNode shards = report.putArray("shards");
+        long slowest = 0;
+        for (Map.Entry<Integer, List<ScenarioResult>> entry : byShard.entrySet()) {
+            long busyMs = entry.getValue().stream().mapToLong(ScenarioResult::getDurationMs).sum();
+            long queueWaitMs = entry.getValue().stream().mapToLong(ScenarioResult::getQueueWaitMs).sum();
+            slowest = Math.max(slowest, busyMs);
+            ObjectNode shard = shards.addObject();
+            shard.put("index", entry.getKey());
+            shard.put("scenarios", entry.getValue().size());
+            shard.put("busyMs", busyMs);
+            shard.put("queueWaitMs", queueWaitMs);
+        }
+        report.put("slowestShardMs", slowest);
+        report.set("results", mapper.valueToTree(all));
+
+        Path file = dir.resolve("combined-report.json");
+        try {
+            mapper.writeValue(file.toFile(), report);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write combined report: " + file, e);
+        }
+
+        System.out.println("Merged " + byShard.size() + " shard(s): total=" + all.size()
+                + " | failed=" + failed + " | slowest shard=" + slowest + " ms → " + file);
+    }
+
+    private static void writeTimings(Path dir, List<ScenarioResult> all) {
+        Map<String, Long> timings = new TreeMap<>(loadTimings(dir));
+        for (ScenarioResult result : all) {
+            Long previous = timings.get(result.getScenarioId());
+            long latest = result.getDurationMs() - result.getQueueWaitMs();
+            timings.put(result.getScenarioId(), previous == null
+                    ? latest
+                    : Math.round(SMOOTHING * latest + (1 - SMOOTHING) * previous));
+        }
+
+        Path file = dir.resolve("timings.json");
+        try {
+            mapper.writeValue(file.toFile(), timings);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write timing profile: " + file, e);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+// SuiteBootstrap.java - Overlaps suite start-up work and reports its critical path
+package runner;
+
+import Browser_utils.DriverFactory;
+import Browser_utils.DriverManager;
+import com.fasterxml.jackson.databind.JsonNode;
+import config.ConfigLoader;
+import utils.TestData;
+import utils.Waits;
+import utils.jsonUtil;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Everything the suite needs before its first test step, started as early as its
+ * inputs allow instead of one after the other:
+ *
+ *      config ──┬── driver binary ── browser launch ── first page
+ *               └── API warm-up (optional)
+ *      test data
+ *
+ *   - "test data" parses every data file once (TestData and the jsonUtil cache keep
+ *     the results) and checks the keys the page objects read, so a typo fails here
+ *     and not mid-scenario.
+ *   - "driver binary" resolves the driver through WebDriverManager and starts the
+ *     shared driver service, leaving only the browser itself for "browser launch".
+ *   - "API warm-up" requests Website_Url once so DNS and TLS are settled before the
+ *     browser needs them. Its failure is logged, never fatal.
+ *
+ * run() returns once test data and the first page are ready; the warm-up is not
+ * waited for and logs its own timing when it ends. Call finish() at teardown to
+ * stop a warm-up that is still running:
+ *
+ *      SuiteBootstrap.run();       // @BeforeClass
+ *      ...
+ *      SuiteBootstrap.finish();    // @AfterClass
+ *
+ * The required steps' timings are printed together with the critical path: the
+ * chain of steps that decided when the first test step could start.
+ */
+public class SuiteBootstrap {
+
+    // Data files read outside TestData, with the keys they need
+    private static final Map<String, List<String>> DATA_FILES = new LinkedHashMap<>();
+    static {
+        DATA_FILES.put("config/products.json", List.of("products"));
+        DATA_FILES.put("config/card_info.json", List.of(
+                "nameOnCard", "cardNumber", "cvc", "expiryMonth", "expiryYear"));
+    }
+
+    /** Timing of one bootstrap step. */
+    private static class Step {
+        final String name;
+        final Step after;   // the step it waited for, or null
+        long startNanos;
+        long endNanos;
+
+        Step(String name, Step after) {
+            this.name = name;
+            this.after = after;
+        }
+    }
+
+    // The last run()'s executor and warm-up, for finish()
+    private static volatile ExecutorService background;
+    private static volatile CompletableFuture<Void> pendingWarmup = CompletableFuture.completedFuture(null);
+
+    private SuiteBootstrap() {}
+
+    /**
+     * Runs the bootstrap and returns once the browser shows Website_Url and test
+     * data is loaded. Throws if any required step failed.
+     */
+    public static void run() {
+        long t0 = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(4, task -> {
+            Thread thread = new Thread(task, "suite-bootstrap");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Step config = new Step("config", null);
+        Step data = new Step("test data", null);
+        Step binary = new Step("driver binary", config);
+        Step launch = new Step("browser launch", binary);
+        Step firstPage = new Step("first page", launch);
+        Step warmup = new Step("API warm-up", config);
+        List<Step> steps = new ArrayList<>(List.of(config, data, binary, launch, firstPage));
+
+        boolean ready = false;
+        try {
+            CompletableFuture<Void> configDone = timed(config, executor, () -> {
+                ConfigLoader.getBrowser();
+                ConfigLoader.getWebsiteUrl();
+            });
+            CompletableFuture<Void> dataDone = timed(data, executor, SuiteBootstrap::loadTestData);
+            CompletableFuture<Void> pageDone = configDone
+                    .thenCompose(v -> timed(binary, executor,
+                            () -> DriverFactory.prepareDriver(ConfigLoader.getBrowser())))
+                    .thenCompose(v -> timed(launch, executor, DriverManager::initializeDriver))
+                    .thenCompose(v -> timed(firstPage, executor,
+                            () -> Waits.navigate(DriverManager.getDriver(), ConfigLoader.getWebsiteUrl())));
+
+            // Off the critical path: nothing waits for it, it reports when it ends
+            if (ConfigLoader.isBootstrapWarmup()) {
+                pendingWarmup = configDone.thenCompose(v -> timed(warmup, executor, SuiteBootstrap::warmUp))
+                        .handle((v, t) -> {
+                            if (t != null) {
+                                System.err.println("API warm-up failed (ignored): " + rootCause(t).getMessage());
+                            } else {
+                                System.out.printf("API warm-up finished in %d ms (+%d → +%d)%n",
+                                        ms(warmup.endNanos - warmup.startNanos),
+                                        ms(warmup.startNanos - t0), ms(warmup.endNanos - t0));
+                            }
+                            return null;
+                        });
+            }
+
+            try {
+                CompletableFuture.allOf(dataDone, pageDone).join();
+            } catch (CompletionException e) {
+                throw new RuntimeException("Suite bootstrap failed", rootCause(e));
+            }
+            ready = true;
+        } finally {
+            if (ready) {
+                // Lets a running warm-up complete; its threads are daemons either way
+                executor.shutdown();
+                background = executor;
+            } else {
+                executor.shutdownNow();
+            }
+        }
+
+        report(steps, t0);
+    }
+
+    /**
+     * Stops the last run()'s warm-up if it is still in flight. Safe to call when
+     * run() was not called or the warm-up is disabled.
+     */
+    public static void finish() {
+        ExecutorService executor = background;
+        background = null;
+        if (executor == null) {
+            return;
+        }
+        if (!pendingWarmup.isDone()) {
+            System.out.println("API warm-up still running at teardown, stopping it");
+        }
+        pendingWarmup.cancel(true);
+        executor.shutdownNow();
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // STEPS
+    // ─────────────────────────────────────────────────────────
+
+    private static void loadTestData() {
+        // signup, login and signup details: typed, validated on load
+        TestData.loadAll();
+        for (Map.Entry<String, List<String>> file : DATA_FILES.entrySet()) {
+            JsonNode root = jsonUtil.readJson(file.getKey());
+            for (String key : file.getValue()) {
+                if (!root.hasNonNull(key)) {
+                    throw new RuntimeException("'" + key + "' key not found in " + file.getKey() + ".");
+                }
+            }
+        }
+    }
+
+    private static void warmUp() throws Exception {
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(ConfigLoader.getWebsiteUrl()))
+                .timeout(Duration.ofSeconds(15))
+                .build();
+        http.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws Exception;
+    }
+
+    private static CompletableFuture<Void> timed(Step step, ExecutorService executor, Task task) {
+        return CompletableFuture.runAsync(() -> {
+            step.startNanos = System.nanoTime();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(step.name + " failed", e);
+            } finally {
+                step.endNanos = System.nanoTime();
+            }
+        }, executor);
+    }
+
+    private static void report(List<Step> steps, long t0) {
+        System.out.println("Suite bootstrap finished in " + ms(System.nanoTime() - t0) + " ms");
+        for (Step step : steps) {
+            System.out.printf("  %-15s %6d ms  (+%d → +%d)%n", step.name,
+                    ms(step.endNanos - step.startNanos), ms(step.startNanos - t0), ms(step.endNanos - t0));
+        }
+
+        // Walk back from the step that finished last through the steps it waited for
+        Step last = steps.stream()
+                .filter(step -> step.endNanos > 0)
+                .max((a, b) -> Long.compare(a.endNanos, b.endNanos))
+                .orElse(null);
+        List<String> path = new ArrayList<>();
+        for (Step step = last; step != null; step = step.after) {
+            path.add(0, step.name + " " + ms(step.endNanos - step.startNanos) + " ms");
+        }
+        System.out.println("  critical path: " + String.join(" → ", path));
+    }
+
+    private static long ms(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    private static Throwable rootCause(Throwable t) {
+        while (t instanceof CompletionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+}
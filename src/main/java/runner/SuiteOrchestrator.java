@@ -0,0 +1,194 @@
+// SuiteOrchestrator.java - Runs scenarios concurrently with a bounded number of browsers
+package runner;
+
+import Browser_utils.DriverLease;
+import Browser_utils.GridClient;
+import config.ConfigLoader;
+import org.openqa.selenium.WebDriver;
+
+import java.lang.reflect.Method;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Runs many scenarios at once while only ever opening a handful of browsers.
+ *
+ * Every scenario gets its own thread — a virtual thread when the JVM supports them
+ * (JDK 21+), otherwise a thread from a cached pool. Threads are cheap because almost
+ * all their time is spent blocked on WebDriver / HTTP calls.
+ *
+ *   - Browser scenarios take a DriverLease first. The lease semaphore is sized by
+ *     "Max_Browsers" in info.json, so extra scenarios queue for a browser instead
+ *     of launching one. In grid mode each browser gets its own semaphore sized by
+ *     the Grid's slots for it, so a scenario never waits behind another browser's
+ *     queue while a node that could run it is idle.
+ *   - HTTP steps (API setup, verification) never touch a browser. They share one
+ *     HttpClient and are bounded separately by "Max_Http_In_Flight".
+ *
+ * Usage:
+ *      try (SuiteOrchestrator suite = SuiteOrchestrator.fromConfig()) {
+ *          suite.submitHttpStep("api:products", http -> ...);
+ *          suite.submitBrowserScenario("cart:blue-top", "chrome", driver -> ...);
+ *          List<ScenarioResult> results = suite.awaitAll();
+ *      }
+ */
+public class SuiteOrchestrator implements AutoCloseable {
+
+    /** An HTTP-only step. Throw to mark it failed. */
+    @FunctionalInterface
+    public interface HttpStep {
+        void run(HttpClient http) throws Exception;
+    }
+
+    private final ExecutorService executor;
+    private final Semaphore browserPermits;
+    private final Map<String, Semaphore> gridPermits = new HashMap<>();
+    private final Semaphore httpPermits;
+    private final HttpClient httpClient;
+    private final List<Future<ScenarioResult>> pending = new ArrayList<>();
+
+    public SuiteOrchestrator(int maxBrowsers, int maxHttpInFlight) {
+        if (maxBrowsers < 1 || maxHttpInFlight < 1) {
+            throw new IllegalArgumentException(
+                    "maxBrowsers and maxHttpInFlight must be at least 1");
+        }
+        this.executor = newScenarioExecutor();
+        this.browserPermits = new Semaphore(maxBrowsers, true);
+        this.httpPermits = new Semaphore(maxHttpInFlight);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    public static SuiteOrchestrator fromConfig() {
+        return new SuiteOrchestrator(ConfigLoader.getMaxBrowsers(), ConfigLoader.getMaxHttpInFlight());
+    }
+
+    /**
+     * Queues a scenario that needs a browser. It starts as soon as a browser permit is free.
+     */
+    public synchronized void submitBrowserScenario(String scenarioId, String browser, Consumer<WebDriver> scenario) {
+        pending.add(executor.submit(() -> {
+            long start = System.nanoTime();
+            long queueWaitMs = 0;
+            ScenarioResult result;
+            try (DriverLease lease = DriverLease.acquire(permitsFor(browser), browser)) {
+                // Known before the scenario runs, so a failed result carries it too
+                queueWaitMs = lease.getQueueWaitMs();
+                scenario.accept(lease.getDriver());
+                result = passed(scenarioId, browser, start);
+            } catch (Throwable t) {
+                result = failed(scenarioId, browser, start, t);
+            }
+            result.setQueueWaitMs(queueWaitMs);
+            return result;
+        }));
+    }
+
+    /**
+     * Queues a browserless HTTP step. Thousands of these can be in flight next to the browsers.
+     */
+    public synchronized void submitHttpStep(String scenarioId, HttpStep step) {
+        pending.add(executor.submit(() -> {
+            long start = System.nanoTime();
+            httpPermits.acquire();
+            try {
+                step.run(httpClient);
+                return passed(scenarioId, null, start);
+            } catch (Throwable t) {
+                return failed(scenarioId, null, start, t);
+            } finally {
+                httpPermits.release();
+            }
+        }));
+    }
+
+    /**
+     * Waits for everything submitted so far and returns the results in submission order.
+     */
+    public List<ScenarioResult> awaitAll() throws InterruptedException {
+        List<Future<ScenarioResult>> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        List<ScenarioResult> results = new ArrayList<>();
+        for (Future<ScenarioResult> future : snapshot) {
+            try {
+                results.add(future.get());
+            } catch (ExecutionException e) {
+                // Tasks catch everything themselves, so this only happens on a bug in the wrapper
+                throw new RuntimeException("Scenario wrapper failed", e.getCause());
+            }
+        }
+
+        long failedCount = results.stream().filter(r -> !r.isPassed()).count();
+        System.out.println("Orchestrator finished " + results.size()
+                + " scenario(s) | failed=" + failedCount);
+        return results;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HELPERS
+    // ─────────────────────────────────────────────────────────
+
+    // Max_Browsers locally; per-browser Grid capacity in grid mode (Max_Browsers if unknown)
+    private synchronized Semaphore permitsFor(String browser) {
+        if (!GridClient.isEnabled()) {
+            return browserPermits;
+        }
+        return gridPermits.computeIfAbsent(browser.toLowerCase(), b -> {
+            int capacity = GridClient.capacity(b);
+            return capacity > 0 ? new Semaphore(capacity, true) : browserPermits;
+        });
+    }
+
+    private static ScenarioResult passed(String scenarioId, String browser, long startNanos) {
+        return new ScenarioResult(scenarioId, browser, ScenarioResult.Status.PASSED, elapsedMs(startNanos), null);
+    }
+
+    private static ScenarioResult failed(String scenarioId, String browser, long startNanos, Throwable t) {
+        System.err.println("✗ " + scenarioId + (browser != null ? " [" + browser + "]" : "")
+                + " failed: " + t.getMessage());
+        return new ScenarioResult(scenarioId, browser, ScenarioResult.Status.FAILED, elapsedMs(startNanos),
+                t.getClass().getSimpleName() + ": " + t.getMessage());
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Virtual-thread-per-task executor on JDK 21+. The project compiles for 17,
+     * so it is looked up reflectively; older JVMs get a cached pool of daemon threads.
+     */
+    private static ExecutorService newScenarioExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "scenario-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -3,10 +3,8 @@ package utils;
 
 import Browser_utils.DriverManager;
 import org.openqa.selenium.By;
-import org.openqa.selenium.ElementClickInterceptedException;
 import org.openqa.selenium.JavascriptExecutor;
 import org.openqa.selenium.Keys;
-import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
 import org.openqa.selenium.support.ui.ExpectedConditions;
@@ -34,20 +32,11 @@ public class Actions {
     public static void click(By locator) {
         dismissAdsAndOverlays();
 
-        WebElement element = getWait().until(ExpectedConditions.presenceOfElementLocated(locator));
-        scrollIntoView(element);
+        WebElement element = getWait().until(ExpectedConditions.elementToBeClickable(locator));
         highlight(element);
 
-        try {
-            getWait().until(ExpectedConditions.elementToBeClickable(locator)).click();
-        } catch (ElementClickInterceptedException e) {
-            // overlay/ad blocked click → remove and JS click
-            dismissAdsAndOverlays();
-            jsClick(locator);
-        } catch (TimeoutException e) {
-            // if clickable wait fails, try JS click as fallback
-            jsClick(locator);
-        }
+        // Probes what covers the element and picks native / overlay removal / JS click at once
+        Clicks.click(getDriver(), element);
     }
 
     // -------------------- SEND KEYS --------------------
@@ -102,17 +91,13 @@ public class Actions {
     // -------------------- CHECKBOX --------------------
     public static void setCheckbox(By locator, boolean shouldBeChecked) {
         dismissAdsAndOverlays();
-        WebElement element = getWait().until(ExpectedConditions.presenceOfElementLocated(locator));
+        WebElement element = getWait().until(ExpectedConditions.elementToBeClickable(locator));
         scrollIntoView(element);
         highlight(element);
 
         boolean isChecked = element.isSelected();
         if (isChecked != shouldBeChecked) {
-            try {
-                getWait().until(ExpectedConditions.elementToBeClickable(locator)).click();
-            } catch (Exception e) {
-                jsClick(locator);
-            }
+            Clicks.click(getDriver(), element);
         }
     }
 
@@ -136,17 +121,12 @@ public class Actions {
         } catch (Exception ignored) {}
     }
 
-    private static void jsClick(By locator) {
-        WebElement element = getWait().until(ExpectedConditions.presenceOfElementLocated(locator));
-        ((JavascriptExecutor) getDriver()).executeScript("arguments[0].click();", element);
-    }
-
     // ✅ FIX 2: Fire input + change events after setting value.
     // The old code only did: arguments[0].value = arguments[1];
     // That silently sets the DOM value but never notifies the page's JS framework,
     // so React/Angular/vanilla listeners never fire and the form submits empty.
     private static void jsType(By locator, String value) {
-        WebElement element = getWait().until(ExpectedConditions.presenceOfElementLocated(locator));
+        WebElement element = getWait().until(ExpectedConditions.visibilityOfElementLocated(locator));
         ((JavascriptExecutor) getDriver()).executeScript(
                 "arguments[0].value = arguments[1];" +
                         "arguments[0].dispatchEvent(new Event('input',  { bubbles: true }));" +
@@ -25,7 +25,7 @@ import java.util.List;
  */
 public class AdHandler {
 
-    private static final By[] GENERIC_CLOSE_LOCATORS = {
+    private static final Locators.Chain GENERIC_CLOSE = Locators.chain("generic-popup-close",
             By.cssSelector(".close-btn"),
             By.cssSelector("button.close"),
             By.cssSelector("button[class*='close']"),
@@ -33,8 +33,23 @@ public class AdHandler {
             By.xpath("//button[@aria-label='close']"),
             By.xpath("//button[contains(@class,'close')]"),
             By.cssSelector("div[class*='overlay'] .close"),
-            By.cssSelector("div[class*='popup'] .close")
-    };
+            By.cssSelector("div[class*='popup'] .close"));
+
+    /**
+     * Nodes that are ads and nothing else, so removing them never breaks the page.
+     * Clicks removes only these when they cover a click target.
+     */
+    public static final String AD_NODES = String.join(", ",
+            "ins.adsbygoogle",
+            ".google-auto-placed",
+            "iframe[id^='aswift']",
+            "iframe[id^='google_ads']",
+            "iframe[src*='googleads']",
+            "iframe[src*='googlesyndication']",
+            "iframe[src*='doubleclick']",
+            "iframe[src*='pubads']",
+            "div[class*='ad-banner']",
+            "div[class*='ad-overlay']");
 
     private AdHandler() {}
 
@@ -243,18 +258,14 @@ public class AdHandler {
      * Click close on generic (non-iframe) popup ads.
      */
     private static void dismissGenericPopups(WebDriver driver) {
-        for (By locator : GENERIC_CLOSE_LOCATORS) {
-            try {
-                List<WebElement> buttons = driver.findElements(locator);
-                for (WebElement btn : buttons) {
-                    if (btn.isDisplayed()) {
-                        btn.click();
-                        System.out.println("Dismissed generic popup via: " + locator);
-                        return;
-                    }
-                }
-            } catch (Exception ignored) {}
-        }
+        try {
+            // Every close-button candidate in one script; no per-locator round trips
+            Locators.Match close = Locators.probe(driver, GENERIC_CLOSE, true);
+            if (close != null) {
+                close.element.click();
+                System.out.println("Dismissed generic popup via: " + close.by);
+            }
+        } catch (Exception ignored) {}
     }
 
     /**
@@ -0,0 +1,143 @@
+package utils;
+
+import org.openqa.selenium.ElementNotInteractableException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Click engine that decides how to click before clicking.
+ *
+ * One probe script scrolls the element to the centre of the viewport and asks
+ * document.elementFromPoint() what is on top of its centre:
+ *
+ *   - the element itself (or a child)  → native click
+ *   - a known ad (AdHandler.AD_NODES)  → the ad is removed in the same script and the
+ *                                        point re-checked; if clear, native click
+ *   - anything else, or no box at all  → JS click straight away
+ *
+ * Only known ad nodes are ever removed. A Bootstrap modal, a sticky header or any
+ * ancestor of the target stays; the click goes through JS instead.
+ *
+ * A native click that is still intercepted (the page changed between probe and click)
+ * drops to a JS click immediately. No route waits for a timeout, so an intercepted
+ * click costs one extra round trip. Every click logs the route it took and the
+ * blocker, and routeCounts() tallies the routes for the run.
+ *
+ * Usage:
+ *      Clicks.click(driver, element);
+ */
+public class Clicks {
+
+    public enum Route { NATIVE, OVERLAY_REMOVED, JS }
+
+    private static final String PROBE_SCRIPT =
+            "var el = arguments[0], ads = arguments[1];" +
+            "function describe(n) {" +
+            "  var s = n.tagName.toLowerCase();" +
+            "  if (n.id) s += '#' + n.id;" +
+            "  else if (typeof n.className === 'string' && n.className.trim())" +
+            "    s += '.' + n.className.trim().split(/\\s+/).join('.');" +
+            "  return s;" +
+            "}" +
+            // Outermost known ad around the hit that doesn't hold the target
+            "function removable(hit) {" +
+            "  var found = null;" +
+            "  for (var n = hit; n && n !== document.body && n !== document.documentElement; n = n.parentElement) {" +
+            "    if (n.contains(el)) break;" +
+            "    if (n.matches(ads)) found = n;" +
+            "  }" +
+            "  return found;" +
+            "}" +
+            "function probe() {" +
+            "  var r = el.getBoundingClientRect();" +
+            "  if (r.width === 0 || r.height === 0) return {state: 'no-box'};" +
+            "  var hit = document.elementFromPoint(r.left + r.width / 2, r.top + r.height / 2);" +
+            "  if (!hit) return {state: 'offscreen'};" +
+            "  if (hit === el || el.contains(hit)) return {state: 'clear'};" +
+            "  return {state: 'occluded', hit: hit};" +
+            "}" +
+            "el.scrollIntoView({block: 'center', inline: 'center'});" +
+            "var removed = [];" +
+            "for (var i = 0; i < 3; i++) {" +
+            "  var p = probe();" +
+            "  if (p.state !== 'occluded') return {state: p.state, removed: removed};" +
+            "  var overlay = removable(p.hit);" +
+            "  if (!overlay) return {state: 'occluded', blocker: describe(p.hit), removed: removed};" +
+            "  removed.push(describe(overlay));" +
+            "  overlay.remove();" +
+            "}" +
+            "var last = probe();" +
+            "return {state: last.state, blocker: last.hit ? describe(last.hit) : null, removed: removed};";
+
+    private static final AtomicLongArray counts = new AtomicLongArray(Route.values().length);
+
+    private Clicks() {}
+
+    /** Clicks element by the cheapest route that will land, and returns that route. */
+    @SuppressWarnings("unchecked")
+    public static Route click(WebDriver driver, WebElement element) {
+        JavascriptExecutor js = (JavascriptExecutor) driver;
+        Map<String, Object> probe;
+        try {
+            probe = (Map<String, Object>) js.executeScript(PROBE_SCRIPT, element, AdHandler.AD_NODES);
+        } catch (StaleElementReferenceException e) {
+            // A live element (LiveElements) can be re-found once; others can't
+            if (!LiveElements.relocate(element)) {
+                throw e;
+            }
+            probe = (Map<String, Object>) js.executeScript(PROBE_SCRIPT, element, AdHandler.AD_NODES);
+        }
+
+        String state = String.valueOf(probe.get("state"));
+        Object removed = probe.get("removed");
+        boolean removedAny = removed instanceof List && !((List<?>) removed).isEmpty();
+
+        Route route;
+        String detail;
+        if ("clear".equals(state)) {
+            route = removedAny ? Route.OVERLAY_REMOVED : Route.NATIVE;
+            detail = removedAny ? "removed " + removed : null;
+            try {
+                element.click();
+            } catch (ElementNotInteractableException e) {
+                // Intercepted: something moved over it after the probe — don't wait it out
+                route = Route.JS;
+                detail = "intercepted after probe";
+                jsClick(driver, element);
+            }
+        } else {
+            route = Route.JS;
+            detail = "occluded".equals(state) ? "covered by " + probe.get("blocker") : state;
+            jsClick(driver, element);
+        }
+
+        record(route);
+        System.out.println("  [click] " + route.name().toLowerCase().replace('_', ' ')
+                + (detail == null ? "" : " (" + detail + ")"));
+        return route;
+    }
+
+    /** Clicks per route since the JVM started. */
+    public static Map<Route, Long> routeCounts() {
+        Map<Route, Long> snapshot = new EnumMap<>(Route.class);
+        for (Route route : Route.values()) {
+            snapshot.put(route, counts.get(route.ordinal()));
+        }
+        return snapshot;
+    }
+
+    private static void jsClick(WebDriver driver, WebElement element) {
+        ((JavascriptExecutor) driver).executeScript("arguments[0].click();", element);
+    }
+
+    private static void record(Route route) {
+        counts.incrementAndGet(route.ordinal());
+    }
+}
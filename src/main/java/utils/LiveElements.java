@@ -0,0 +1,124 @@
+package utils;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.SearchContext;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.WrapsElement;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * WebElements that find themselves again when the page re-renders them.
+ *
+ * A live element remembers the locator it was found by and the context it was found
+ * in (the driver, or another live element for nested lookups). When a call hits
+ * StaleElementReferenceException it re-runs that lookup once — no wait, the driver's
+ * implicit wait is 0 — and repeats the call on the fresh element. Page objects can
+ * keep the reference from their first wait instead of waiting for the same locator
+ * again after a scroll or an ad removal.
+ *
+ *      WebElement qty = LiveElements.wrap(driver, By.id("quantity"),
+ *              wait.until(ExpectedConditions.presenceOfElementLocated(By.id("quantity"))));
+ *      scrollTo(qty);
+ *      qty.clear();     // re-found here if the scroll re-rendered it
+ *
+ * findElement() on a live element returns a live child whose lookup goes through
+ * its parent, so a stale parent is re-found first. Passed to executeScript, a live
+ * element is sent as the element it currently holds.
+ */
+public class LiveElements {
+
+    private LiveElements() {}
+
+    /** Finds locator in context now and returns it as a live element. */
+    public static WebElement find(SearchContext context, By locator) {
+        return wrap(context, locator, unwrap(context.findElement(locator)));
+    }
+
+    /** Makes an element already found by locator in context live. */
+    public static WebElement wrap(SearchContext context, By locator, WebElement found) {
+        return (WebElement) Proxy.newProxyInstance(
+                LiveElements.class.getClassLoader(),
+                new Class<?>[] {WebElement.class, WrapsElement.class},
+                new Handler(context, locator, unwrap(found)));
+    }
+
+    /**
+     * Re-finds a live element now, for callers that got stale from executeScript (which
+     * sends the held element as-is). False if element isn't live.
+     */
+    public static boolean relocate(WebElement element) {
+        if (!isLive(element)) {
+            return false;
+        }
+        Handler handler = (Handler) Proxy.getInvocationHandler(element);
+        handler.current = unwrap(handler.context.findElement(handler.locator));
+        return true;
+    }
+
+    private static boolean isLive(WebElement element) {
+        return element != null && Proxy.isProxyClass(element.getClass())
+                && Proxy.getInvocationHandler(element) instanceof Handler;
+    }
+
+    // The element a live proxy currently holds; anything else unchanged
+    private static WebElement unwrap(WebElement element) {
+        if (isLive(element)) {
+            return ((Handler) Proxy.getInvocationHandler(element)).current;
+        }
+        return element;
+    }
+
+    private static class Handler implements InvocationHandler {
+        private final SearchContext context;
+        private final By locator;
+        private volatile WebElement current;
+
+        Handler(SearchContext context, By locator, WebElement current) {
+            this.context = context;
+            this.locator = locator;
+            this.current = current;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getWrappedElement":
+                    return current;
+                case "equals":
+                    return proxy == args[0]
+                            || (args[0] instanceof WebElement && current.equals(unwrap((WebElement) args[0])));
+                case "hashCode":
+                    return current.hashCode();
+                case "toString":
+                    return "Live[" + locator + "] " + current;
+                case "findElement":
+                    // Children look themselves up through this proxy, so a stale parent is re-found first
+                    return wrap((SearchContext) proxy, (By) args[0], (WebElement) call(method, args));
+                default:
+                    return call(method, args);
+            }
+        }
+
+        private Object call(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(current, args);
+            } catch (InvocationTargetException e) {
+                if (!(e.getCause() instanceof StaleElementReferenceException)) {
+                    throw e.getCause();
+                }
+            }
+            // Re-find once and retry; a second stale is the caller's problem
+            current = unwrap(context.findElement(locator));
+            try {
+                return method.invoke(current, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package utils;
+
+import org.openqa.selenium.By;
+
+import java.util.List;
+
+/**
+ * A By turned into something a page script can evaluate.
+ *
+ * Scripts that look elements up themselves — Locators' fallback probe, the
+ * LocatorProfiler timing loop — pass [kind, expr] from of() as arguments and
+ * prepend FUNCTION, which defines query(kind, expr) returning the matching
+ * elements in document order:
+ *
+ *      List<String> q = LocatorQuery.of(By.id("submit"));      // ["css", "[id=\"submit\"]"]
+ *      js.executeScript(LocatorQuery.FUNCTION + "return query(arguments[0], arguments[1]);",
+ *              q.get(0), q.get(1));
+ *
+ * id, name, className and tagName become CSS; xpath and link text stay as they are.
+ * Attribute values are quoted and escaped, so ids with quotes or backslashes still
+ * select the same element.
+ */
+public final class LocatorQuery {
+
+    /** JS: function query(kind, expr) → Array of elements. Throws in the page on a bad expression. */
+    public static final String FUNCTION =
+            "function query(kind, expr) {" +
+            "  if (kind === 'xpath') {" +
+            "    var r = document.evaluate(expr, document, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null);" +
+            "    var out = [];" +
+            "    for (var i = 0; i < r.snapshotLength; i++) if (r.snapshotItem(i).nodeType === 1) out.push(r.snapshotItem(i));" +
+            "    return out;" +
+            "  }" +
+            "  if (kind === 'linkText' || kind === 'partialLinkText') {" +
+            "    return Array.prototype.filter.call(document.querySelectorAll('a'), function (a) {" +
+            "      var t = a.innerText.trim();" +
+            "      return kind === 'linkText' ? t === expr : t.indexOf(expr) >= 0;" +
+            "    });" +
+            "  }" +
+            "  return Array.prototype.slice.call(document.querySelectorAll(expr));" +
+            "}";
+
+    private LocatorQuery() {}
+
+    /**
+     * [kind, expr] for query(), from By.toString() ("By.xpath: //a"). kind is "css",
+     * "xpath", "linkText" or "partialLinkText".
+     * @throws IllegalArgumentException for locators with no single-query form (chained, relative)
+     */
+    public static List<String> of(By by) {
+        String text = by.toString();
+        int colon = text.indexOf(": ");
+        String kind = colon < 0 ? "" : text.substring(3, colon);
+        String expr = colon < 0 ? text : text.substring(colon + 2);
+        switch (kind) {
+            case "xpath":
+            case "linkText":
+            case "partialLinkText":
+                return List.of(kind, expr);
+            case "id":
+                return List.of("css", attribute("id", "=", expr));
+            case "name":
+                return List.of("css", attribute("name", "=", expr));
+            case "className":
+                return List.of("css", attribute("class", "~=", expr));
+            case "cssSelector":
+            case "tagName":
+                return List.of("css", expr);
+            default:
+                throw new IllegalArgumentException("Only css, id, name, className, tagName, xpath and "
+                        + "link-text locators can be queried in the page, not " + text);
+        }
+    }
+
+    // [name op "value"], with the value escaped as a CSS string
+    private static String attribute(String name, String op, String value) {
+        String escaped = value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\a ");
+        return "[" + name + op + "\"" + escaped + "\"]";
+    }
+}
@@ -0,0 +1,234 @@
+package utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import config.ConfigLoader;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ranked locator fallback chains.
+ *
+ * A logical element ("place-order", "continue-shopping") gets a chain of candidate
+ * locators. One script evaluates every candidate and returns the first that matches
+ * in rank order, so a fallback costs nothing extra — no timeout spent on a primary
+ * locator before the alternative is tried.
+ *
+ * Rank comes from history: each time a candidate wins it scores a point, and the
+ * best-scoring candidate is tried first next time. Scores are kept in
+ * "Locator_History_File" (target/locator-history.json by default) across runs.
+ * At exit each JVM adds the wins it scored to what is on disk then, under a file
+ * lock, so parallel JVMs sharing the file all keep their points.
+ *
+ *      private static final Locators.Chain PLACE_ORDER = Locators.chain("place-order",
+ *              By.xpath("//a[@href='/payment' and contains(@class,'check_out')]"),
+ *              By.cssSelector("a.btn.btn-default.check_out"));
+ *
+ *      WebElement button = Locators.find(driver, PLACE_ORDER, Duration.ofSeconds(10));
+ */
+public class Locators {
+
+    /** Candidates for one logical element, in declared order. */
+    public static class Chain {
+        final String name;
+        final List<By> candidates;
+
+        private Chain(String name, List<By> candidates) {
+            this.name = name;
+            this.candidates = candidates;
+        }
+
+        @Override
+        public String toString() {
+            return name + candidates;
+        }
+    }
+
+    /** A probe result: the element and the candidate that found it. */
+    public static class Match {
+        public final By by;
+        public final WebElement element;
+
+        Match(By by, WebElement element) {
+            this.by = by;
+            this.element = element;
+        }
+    }
+
+    private static final String PROBE_SCRIPT = LocatorQuery.FUNCTION +
+            "var cands = arguments[0], visibleOnly = arguments[1], enabledOnly = arguments[2];" +
+            "function shown(e) {" +
+            "  var s = getComputedStyle(e);" +
+            "  return s.display !== 'none' && s.visibility !== 'hidden' && e.getClientRects().length > 0;" +
+            "}" +
+            "for (var c = 0; c < cands.length; c++) {" +
+            "  var found;" +
+            "  try { found = query(cands[c][0], cands[c][1]); } catch (e) { continue; }" +
+            "  for (var i = 0; i < found.length; i++) {" +
+            "    if ((!visibleOnly || shown(found[i])) && (!enabledOnly || !found[i].matches(':disabled'))) return [c, found[i]];" +
+            "  }" +
+            "}" +
+            "return null;";
+
+    private static final long POLL_MS = 100;
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // chain name → By.toString() → wins
+    private static Map<String, Map<String, Integer>> history;
+    // The same, counting only wins scored by this JVM: what save() adds to the file
+    private static final Map<String, Map<String, Integer>> scored = new HashMap<>();
+
+    private Locators() {}
+
+    public static Chain chain(String name, By... candidates) {
+        return new Chain(name, List.copyOf(Arrays.asList(candidates)));
+    }
+
+    /** Evaluates every candidate once, no wait. Null if none matches. */
+    public static Match probe(WebDriver driver, Chain chain, boolean visibleOnly) {
+        return probe(driver, chain, visibleOnly, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Match probe(WebDriver driver, Chain chain, boolean visibleOnly, boolean enabledOnly) {
+        List<By> ranked = ranked(chain);
+        List<List<String>> args = new ArrayList<>();
+        for (By by : ranked) {
+            args.add(LocatorQuery.of(by));
+        }
+        List<Object> hit = (List<Object>) ((JavascriptExecutor) driver)
+                .executeScript(PROBE_SCRIPT, args, visibleOnly, enabledOnly);
+        if (hit == null) {
+            return null;
+        }
+        By winner = ranked.get(((Number) hit.get(0)).intValue());
+        recordWin(chain, winner);
+        return new Match(winner, (WebElement) hit.get(1));
+    }
+
+    /** First present element of the chain, polling until timeout. */
+    public static WebElement find(WebDriver driver, Chain chain, Duration timeout) {
+        return await(driver, chain, false, false, timeout);
+    }
+
+    /** First displayed element of the chain, polling until timeout. */
+    public static WebElement findVisible(WebDriver driver, Chain chain, Duration timeout) {
+        return await(driver, chain, true, false, timeout);
+    }
+
+    /** First displayed and enabled element of the chain — what elementToBeClickable waits for. */
+    public static WebElement findClickable(WebDriver driver, Chain chain, Duration timeout) {
+        return await(driver, chain, true, true, timeout);
+    }
+
+    private static WebElement await(WebDriver driver, Chain chain, boolean visibleOnly, boolean enabledOnly,
+                                    Duration timeout) {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (true) {
+            Match match = probe(driver, chain, visibleOnly, enabledOnly);
+            if (match != null) {
+                return match.element;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new TimeoutException("No candidate of " + chain + " matched within "
+                        + timeout.toSeconds() + " s");
+            }
+            try {
+                Thread.sleep(POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new TimeoutException("Interrupted while looking for " + chain.name);
+            }
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // HISTORY
+    // ─────────────────────────────────────────────────────────
+
+    // Candidates by wins, declared order breaking ties
+    private static synchronized List<By> ranked(Chain chain) {
+        Map<String, Integer> wins = history().getOrDefault(chain.name, Map.of());
+        List<By> ranked = new ArrayList<>(chain.candidates);
+        ranked.sort(Comparator.comparing((By by) -> wins.getOrDefault(by.toString(), 0)).reversed());
+        return ranked;
+    }
+
+    private static synchronized void recordWin(Chain chain, By winner) {
+        history().computeIfAbsent(chain.name, k -> new HashMap<>()).merge(winner.toString(), 1, Integer::sum);
+        scored.computeIfAbsent(chain.name, k -> new HashMap<>()).merge(winner.toString(), 1, Integer::sum);
+    }
+
+    private static Map<String, Map<String, Integer>> history() {
+        if (history == null) {
+            history = readHistory(Paths.get(ConfigLoader.getLocatorHistoryFile()));
+            Runtime.getRuntime().addShutdownHook(new Thread(Locators::save, "locator-history-save"));
+        }
+        return history;
+    }
+
+    private static Map<String, Map<String, Integer>> readHistory(Path file) {
+        Map<String, Map<String, Integer>> read = new HashMap<>();
+        if (Files.isRegularFile(file)) {
+            try {
+                read.putAll(mapper.readValue(file.toFile(), new TypeReference<Map<String, Map<String, Integer>>>() {}));
+            } catch (IOException e) {
+                System.err.println("Ignoring unreadable locator history " + file + ": " + e.getMessage());
+            }
+        }
+        return read;
+    }
+
+    // Other JVMs may have saved since this one read the file: re-read it under the
+    // lock, add this JVM's wins, and swap the result in whole so no reader sees half
+    private static synchronized void save() {
+        if (scored.isEmpty()) {
+            return;
+        }
+        Path file = Paths.get(ConfigLoader.getLocatorHistoryFile()).toAbsolutePath();
+        Path lockFile = file.resolveSibling(file.getFileName() + ".lock");
+        try {
+            Files.createDirectories(file.getParent());
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock lock = channel.lock()) {
+                Map<String, Map<String, Integer>> merged = readHistory(file);
+                scored.forEach((chain, wins) -> wins.forEach((by, count) ->
+                        merged.computeIfAbsent(chain, k -> new HashMap<>()).merge(by, count, Integer::sum)));
+
+                Path temp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+                try {
+                    mapper.writerWithDefaultPrettyPrinter().writeValue(temp.toFile(), merged);
+                    try {
+                        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    } catch (AtomicMoveNotSupportedException e) {
+                        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Could not save locator history to " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.time.Duration;
+
+/**
+ * Bootstrap modal lifecycle, read from the site's own modal events.
+ *
+ * track() installs a small listener for show / shown / hide / hidden.bs.modal (through
+ * jQuery when the page has it, as Bootstrap 3 fires jQuery events). Afterwards:
+ *
+ *   - state() says in one call whether a modal is showing, shown, hiding or hidden —
+ *     call it right after the click that may open one instead of waiting for it
+ *   - awaitShown() / awaitHidden() return when the fade animation has finished,
+ *     not after a fixed sleep
+ *
+ * Pages without the listener (it is lost on navigation) fall back to reading the
+ * modal's classes and computed style.
+ */
+public class Modals {
+
+    private static final String TRACKER =
+            "if (!window.__modalTracker) {" +
+            "  var t = window.__modalTracker = {state: {}, waiters: []};" +
+            "  var on = function (type, state) {" +
+            "    var handler = function (e) {" +
+            "      var id = (e.target && e.target.id) || '';" +
+            "      t.state[id] = state;" +
+            "      t.waiters.slice().forEach(function (w) { w(id, state); });" +
+            "    };" +
+            "    if (window.jQuery) { jQuery(document).on(type, handler); }" +
+            "    else { document.addEventListener(type, handler); }" +
+            "  };" +
+            "  on('show.bs.modal', 'showing'); on('shown.bs.modal', 'shown');" +
+            "  on('hide.bs.modal', 'hiding');  on('hidden.bs.modal', 'hidden');" +
+            "}";
+
+    private static final String DOM_STATE =
+            "function domState(id) {" +
+            "  var el = document.getElementById(id);" +
+            "  if (!el) return 'hidden';" +
+            "  var s = getComputedStyle(el);" +
+            "  if (s.display === 'none' || el.getClientRects().length === 0) return 'hidden';" +
+            "  return (el.classList.contains('in') || el.classList.contains('show')) ? 'shown' : 'showing';" +
+            "}" +
+            "function currentState(id) {" +
+            "  var t = window.__modalTracker, dom = domState(id);" +
+            "  var tracked = t && t.state[id];" +
+            // Tracked state wins, except a modal removed without events (e.g. forced display:none)
+            "  return tracked && !(dom === 'hidden' && tracked !== 'hiding') ? tracked : dom;" +
+            "}";
+
+    private static final String AWAIT =
+            DOM_STATE + TRACKER +
+            "var id = arguments[0], wanted = arguments[1], timeoutMs = arguments[2];" +
+            "var done = arguments[arguments.length - 1];" +
+            "if (currentState(id) === wanted) { done(true); return; }" +
+            "var finished = false, timer, deadline, t = window.__modalTracker;" +
+            "function finish(v) {" +
+            "  if (finished) return;" +
+            "  finished = true;" +
+            "  t.waiters.splice(t.waiters.indexOf(waiter), 1);" +
+            "  clearInterval(timer); clearTimeout(deadline);" +
+            "  done(v);" +
+            "}" +
+            "function waiter(mid, state) { if (mid === id && state === wanted) finish(true); }" +
+            "t.waiters.push(waiter);" +
+            // Catches modals opened or closed without Bootstrap events
+            "timer = setInterval(function () { if (domState(id) === wanted) finish(true); }, 100);" +
+            "deadline = setTimeout(function () { finish(false); }, timeoutMs);";
+
+    private Modals() {}
+
+    /** Starts listening for modal events on the current page. Call before the triggering click. */
+    public static void track(WebDriver driver) {
+        ((JavascriptExecutor) driver).executeScript(TRACKER);
+    }
+
+    /** "showing", "shown", "hiding" or "hidden" for the modal with this id. */
+    public static String state(WebDriver driver, String modalId) {
+        return (String) ((JavascriptExecutor) driver).executeScript(
+                DOM_STATE + "return currentState(arguments[0]);", modalId);
+    }
+
+    /** True if the modal is open or on its way in. False while the page is navigating away. */
+    public static boolean isPending(WebDriver driver, String modalId) {
+        String state;
+        try {
+            state = state(driver, modalId);
+        } catch (NoSuchSessionException e) {
+            throw e;
+        } catch (WebDriverException e) {
+            // The click started a navigation and the old document is unloading
+            return false;
+        }
+        return "showing".equals(state) || "shown".equals(state);
+    }
+
+    /** Waits for shown.bs.modal (or an already open modal). False on timeout. */
+    public static boolean awaitShown(WebDriver driver, String modalId, Duration timeout) {
+        return await(driver, modalId, "shown", timeout);
+    }
+
+    /** Waits for hidden.bs.modal (or an already closed modal). False on timeout. */
+    public static boolean awaitHidden(WebDriver driver, String modalId, Duration timeout) {
+        return await(driver, modalId, "hidden", timeout);
+    }
+
+    private static boolean await(WebDriver driver, String modalId, String wanted, Duration timeout) {
+        Object result = ((JavascriptExecutor) driver).executeAsyncScript(
+                AWAIT, modalId, wanted, timeout.toMillis());
+        return Boolean.TRUE.equals(result);
+    }
+}
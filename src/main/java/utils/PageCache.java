@@ -0,0 +1,44 @@
+package utils;
+
+import Browser_utils.PageEvents;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Query results kept for as long as the page stays the same.
+ *
+ * Entries are scoped to PageEvents.pageVersion(), which moves on navigation, on any
+ * DOM mutation in the top-level document and on every click / type / switch made
+ * through the driver. A repeated lookup on an unchanged page is answered from
+ * memory; the first one after a change goes to the browser again.
+ *
+ *      List<WebElement> badge = PageCache.findElements(driver, By.xpath("//a[contains(text(),'Logged in as')]"));
+ *      String heading = PageCache.query(driver, "deleted-heading", () -> readHeading());
+ *
+ * Without BiDi (or without its mutation feed) nothing is cached and every call queries.
+ */
+public class PageCache {
+
+    private PageCache() {}
+
+    /** query's result for key on the current page version. */
+    public static <T> T query(WebDriver driver, String key, Supplier<T> query) {
+        PageEvents pageEvents = PageEvents.of(driver);
+        return pageEvents == null ? query.get() : pageEvents.cached(key, query);
+    }
+
+    /** True if query(driver, key, ...) would be answered from memory right now. */
+    public static boolean isCached(WebDriver driver, String key) {
+        PageEvents pageEvents = PageEvents.of(driver);
+        return pageEvents != null && pageEvents.isCached(key);
+    }
+
+    /** driver.findElements(locator), once per page version. */
+    public static List<WebElement> findElements(WebDriver driver, By locator) {
+        return query(driver, "findElements " + locator, () -> driver.findElements(locator));
+    }
+}
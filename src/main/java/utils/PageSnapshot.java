@@ -0,0 +1,182 @@
+package utils;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only copy of a page (or one subtree) taken in a single script call and
+ * queried in-process with jsoup.
+ *
+ * Verification code that reads many elements — every cell of every cart row, a
+ * heading plus its message plus a button — pays one round trip for the snapshot
+ * and nothing per read after that:
+ *
+ *      PageSnapshot cart = PageSnapshot.of(driver, "#cart_info_table");
+ *      for (Element row : cart.select("tbody tr")) {
+ *          String name = PageSnapshot.text(row.selectFirst("td.cart_description h4 a"));
+ *      }
+ *
+ * The script marks each element the browser doesn't render — judged by that element's
+ * own computed style, so a visibility:visible child of a hidden parent still counts
+ * as shown — and records any text-transform. isVisible() and text() use those marks:
+ *
+ *   - text() has the rendered words and case of getText(): hidden parts are left
+ *     out, uppercase/lowercase/capitalize are applied and <br> is a line break.
+ *   - Whitespace is collapsed as in jsoup's text(), so block boundaries don't become
+ *     line breaks the way they do in getText(). Compare with that in mind.
+ *
+ * Scripts and styles are left out. Snapshots are kept per page version (PageCache),
+ * so every page object reading the same unchanged page shares one.
+ */
+public class PageSnapshot {
+
+    private static final String HIDDEN = "data-snapshot-hidden";
+    private static final String TRANSFORM = "data-snapshot-transform";
+
+    private static final String SNAPSHOT_SCRIPT =
+            "var root = arguments[0] ? document.querySelector(arguments[0]) : document.documentElement;" +
+            "if (!root) return null;" +
+            "var copy = root.cloneNode(true);" +
+            // querySelectorAll returns document order, so both lists line up
+            "var live = [root].concat(Array.prototype.slice.call(root.querySelectorAll('*')));" +
+            "var cloned = [copy].concat(Array.prototype.slice.call(copy.querySelectorAll('*')));" +
+            "for (var i = 0; i < live.length; i++) {" +
+            "  var style = getComputedStyle(live[i]);" +
+            "  if (style.visibility !== 'visible' || live[i].getClientRects().length === 0)" +
+            "    cloned[i].setAttribute('" + HIDDEN + "', '');" +
+            "  if (style.textTransform && style.textTransform !== 'none')" +
+            "    cloned[i].setAttribute('" + TRANSFORM + "', style.textTransform);" +
+            "}" +
+            "Array.prototype.forEach.call(copy.querySelectorAll('script, style, noscript')," +
+            "    function (e) { e.remove(); });" +
+            "return copy.outerHTML;";
+
+    private final Element root;   // null when the subtree wasn't on the page
+
+    private PageSnapshot(Element root) {
+        this.root = root;
+    }
+
+    /** Snapshot of the whole document. */
+    public static PageSnapshot of(WebDriver driver) {
+        return of(driver, null);
+    }
+
+    /** Snapshot of the first element matching css (empty if there is none). */
+    public static PageSnapshot of(WebDriver driver, String css) {
+        return PageCache.query(driver, "snapshot " + css, () -> {
+            String html = (String) ((JavascriptExecutor) driver).executeScript(SNAPSHOT_SCRIPT, css);
+            if (html == null) {
+                return new PageSnapshot(null);
+            }
+            Document document = Jsoup.parse(html);
+            return new PageSnapshot(css == null ? document : document.selectFirst(css));
+        });
+    }
+
+    /** True if the snapshotted subtree wasn't on the page. */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /** Elements matching css inside the snapshot, in document order. */
+    public List<Element> select(String css) {
+        return root == null ? new ArrayList<>() : root.select(css);
+    }
+
+    public boolean exists(String css) {
+        return root != null && root.selectFirst(css) != null;
+    }
+
+    /** True if the first element matching css is rendered. */
+    public boolean isVisible(String css) {
+        return root != null && isVisible(root.selectFirst(css));
+    }
+
+    /** Rendered text of the first element matching css, or null if there is none. */
+    public String text(String css) {
+        return root == null ? null : text(root.selectFirst(css));
+    }
+
+    /** True if element was rendered when the snapshot was taken. */
+    public static boolean isVisible(Element element) {
+        // Each element was marked from its own computed style; ancestors don't matter
+        return element != null && !element.hasAttr(HIDDEN);
+    }
+
+    /** Rendered text of element, close to WebElement.getText() (see class doc); null for null. */
+    public static String text(Element element) {
+        if (element == null) {
+            return null;
+        }
+        StringBuilder text = new StringBuilder();
+        NodeTraversor.traverse(new NodeVisitor() {
+            @Override
+            public void head(Node node, int depth) {
+                if (node instanceof TextNode && node.parent() instanceof Element
+                        && isVisible((Element) node.parent())) {
+                    Element parent = (Element) node.parent();
+                    text.append(transform(((TextNode) node).text(), parent.attr(TRANSFORM)));
+                } else if (node instanceof Element) {
+                    separate((Element) node);
+                }
+            }
+
+            @Override
+            public void tail(Node node, int depth) {
+                if (node instanceof Element) {
+                    separate((Element) node);
+                }
+            }
+
+            // <br> (which has no box of its own) breaks the line; a block boundary is a space
+            private void separate(Element e) {
+                if (e.nameIs("br")) {
+                    if (e.parent() == null || isVisible(e.parent())) {
+                        text.append('\n');
+                    }
+                } else if (e.isBlock()) {
+                    text.append(' ');
+                }
+            }
+        }, element);
+
+        StringBuilder lines = new StringBuilder();
+        for (String line : text.toString().split("\n", -1)) {
+            String collapsed = line.replaceAll("\\s+", " ").trim();
+            if (!collapsed.isEmpty()) {
+                lines.append(lines.length() == 0 ? "" : "\n").append(collapsed);
+            }
+        }
+        return lines.toString();
+    }
+
+    private static String transform(String text, String textTransform) {
+        switch (textTransform) {
+            case "uppercase":
+                return text.toUpperCase();
+            case "lowercase":
+                return text.toLowerCase();
+            case "capitalize":
+                StringBuilder out = new StringBuilder(text.length());
+                boolean wordStart = true;
+                for (char c : text.toCharArray()) {
+                    out.append(wordStart ? Character.toUpperCase(c) : c);
+                    wordStart = Character.isWhitespace(c);
+                }
+                return out.toString();
+            default:
+                return text;
+        }
+    }
+}
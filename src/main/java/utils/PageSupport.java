@@ -0,0 +1,52 @@
+package utils;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+
+/**
+ * What every page class repeats — driver, wait, highlight, scroll — in one place.
+ * Classes generated from locator manifests (codegen.PageObjectProcessor) extend it.
+ */
+public abstract class PageSupport {
+
+    protected final WebDriver driver;
+    protected final WebDriverWait wait;
+
+    protected PageSupport(WebDriver driver) {
+        this.driver = driver;
+        this.wait = new WebDriverWait(driver, Duration.ofSeconds(15));
+    }
+
+    /**
+     * Highlight element with black border
+     */
+    public void highlight(WebElement element) {
+        try {
+            ((JavascriptExecutor) driver).executeScript(
+                    "arguments[0].style.border='5px solid black';" +
+                            "arguments[0].style.boxShadow='0 0 10px black';",
+                    element
+            );
+        } catch (Exception ignored) {}
+    }
+
+    /**
+     * Scroll element to the middle of the viewport
+     */
+    public void scrollTo(WebElement element) {
+        try {
+            ((JavascriptExecutor) driver).executeScript(
+                    "arguments[0].scrollIntoView({block:'center'});",
+                    element
+            );
+        } catch (Exception ignored) {}
+    }
+
+    protected Object script(String script, Object... args) {
+        return ((JavascriptExecutor) driver).executeScript(script, args);
+    }
+}
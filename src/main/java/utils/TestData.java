@@ -0,0 +1,172 @@
+package utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.function.Supplier;
+
+/**
+ * Typed, read-only view of the key/value test data files, parsed once per JVM.
+ *
+ * Each file is loaded the first time it is used, through a holder class: the JVM's
+ * class initialisation makes the load happen once and publishes the result to every
+ * thread, and each later call is a read of a final field — no map lookup, no lock.
+ * Every key the page objects read is checked at load, so a missing one fails on
+ * first use with the file and key named, not halfway through a form. The holder
+ * keeps that failure and every later call throws it again, rather than the JVM's
+ * NoClassDefFoundError for a holder whose initialiser failed.
+ *
+ *      TestData.SignupDetails details = TestData.signupDetails();
+ *      Actions.sendKeys(firstNameInput, details.firstName);
+ */
+public final class TestData {
+
+    /** config/signup.json */
+    public static final class Signup {
+        public static final String FILE = "config/signup.json";
+
+        public final String name;
+        public final String emailAddress;
+
+        private Signup(Fields f) {
+            this.name = f.get("Name");
+            this.emailAddress = f.get("Email_address");
+        }
+    }
+
+    /** config/Login.json */
+    public static final class Login {
+        public static final String FILE = "config/Login.json";
+
+        public final String password;
+
+        private Login(Fields f) {
+            this.password = f.get("password");
+        }
+    }
+
+    /** config/Signupdetails.json */
+    public static final class SignupDetails {
+        public static final String FILE = "config/Signupdetails.json";
+
+        public final String title;
+        public final String password;
+        public final String dobDay;
+        public final String dobMonth;
+        public final String dobYear;
+        public final boolean newsletter;
+        public final boolean offers;
+        public final String firstName;
+        public final String lastName;
+        public final String company;
+        public final String address;
+        public final String address2;
+        public final String country;
+        public final String state;
+        public final String city;
+        public final String zipcode;
+        public final String mobileNumber;
+
+        private SignupDetails(Fields f) {
+            this.title = f.get("Title");
+            this.password = f.get("Password");
+            this.dobDay = f.get("DOB_Day");
+            this.dobMonth = f.get("DOB_Month");
+            this.dobYear = f.get("DOB_Year");
+            this.newsletter = Boolean.parseBoolean(f.get("Newsletter"));
+            this.offers = Boolean.parseBoolean(f.get("Offers"));
+            this.firstName = f.get("First_name");
+            this.lastName = f.get("Last_name");
+            this.company = f.get("Company");
+            this.address = f.get("Address");
+            this.address2 = f.get("Address2");
+            this.country = f.get("Country");
+            this.state = f.get("State");
+            this.city = f.get("City");
+            this.zipcode = f.get("Zipcode");
+            this.mobileNumber = f.get("Mobile_Number");
+        }
+    }
+
+    private TestData() {}
+
+    public static Signup signup() {
+        return SignupHolder.INSTANCE.get();
+    }
+
+    public static Login login() {
+        return LoginHolder.INSTANCE.get();
+    }
+
+    public static SignupDetails signupDetails() {
+        return SignupDetailsHolder.INSTANCE.get();
+    }
+
+    /** Loads and validates every file now — for suite start-up, so bad data fails early. */
+    public static void loadAll() {
+        signup();
+        login();
+        signupDetails();
+    }
+
+    // ─────────────────────────────────────────────────────────
+    // LOADING
+    // ─────────────────────────────────────────────────────────
+
+    private static class SignupHolder {
+        static final Loaded<Signup> INSTANCE = Loaded.of(() -> new Signup(new Fields(Signup.FILE)));
+    }
+
+    private static class LoginHolder {
+        static final Loaded<Login> INSTANCE = Loaded.of(() -> new Login(new Fields(Login.FILE)));
+    }
+
+    private static class SignupDetailsHolder {
+        static final Loaded<SignupDetails> INSTANCE =
+                Loaded.of(() -> new SignupDetails(new Fields(SignupDetails.FILE)));
+    }
+
+    // A holder's outcome: the typed object, or the missing key / file that stopped it
+    private static final class Loaded<T> {
+        private final T value;
+        private final RuntimeException failure;
+
+        private Loaded(T value, RuntimeException failure) {
+            this.value = value;
+            this.failure = failure;
+        }
+
+        static <T> Loaded<T> of(Supplier<T> load) {
+            try {
+                return new Loaded<>(load.get(), null);
+            } catch (RuntimeException e) {
+                return new Loaded<>(null, e);
+            }
+        }
+
+        T get() {
+            if (failure != null) {
+                throw failure;
+            }
+            return value;
+        }
+    }
+
+    // Required-key access to one parsed file, used only while building the typed object
+    private static class Fields {
+        private final String file;
+        private final JsonNode root;
+
+        Fields(String file) {
+            this.file = file;
+            this.root = jsonUtil.cached(file);
+        }
+
+        String get(String key) {
+            JsonNode value = root.get(key);
+            if (value == null || value.isNull()) {
+                throw new RuntimeException("'" + key + "' key not found in " + file + ".");
+            }
+            return value.asText();
+        }
+    }
+}
@@ -1,4 +1,284 @@
 package utils;
 
+import codegen.GeneratedPages;
+import config.ConfigLoader;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.remote.UnreachableBrowserException;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Page readiness contracts.
+ *
+ * With "Page_Load_Strategy": "eager" or "none" in info.json, driver.get() returns
+ * before (or without waiting for) every ad and tracker on the page. navigate() then
+ * waits only for what the next action needs — the contract registered for the URL's
+ * path, e.g. the product grid on /products or an interactive #quantity input on
+ * /product_details/{id}. Paths without a contract wait for the DOM to be parsed.
+ *
+ * Usage:
+ *      Waits.navigate(driver, baseUrl + "/products");   // instead of driver.get + sleep
+ *
+ * Race waits.
+ *
+ * race() waits for "A or B" in one async script. The script checks every condition
+ * on each DOM mutation (and every 50 ms for URL and style changes) and calls back
+ * with the name of the first that holds. The answer costs one round trip however
+ * the race ends, instead of one timeout per branch. If the page navigates away
+ * mid-race, the script is sent again to the new page with the time left, after a
+ * short backoff. A lost session (NoSuchSessionException, an unreachable or
+ * disconnected browser) is rethrown instead of retried.
+ *
+ *      String outcome = Waits.race(driver, Duration.ofSeconds(10),
+ *              Waits.urlNotContains("success", "/login"),
+ *              Waits.textPresent("error", ".login-form", "Your email or password is incorrect"));
+ */
 public class Waits {
+
+    /** A named condition evaluated inside the page by race(). */
+    public static class Condition {
+        final String name;
+        final String kind;
+        final String arg;
+        final String scope;   // CSS of the container a text check reads, "" for the whole body
+
+        private Condition(String name, String kind, String arg) {
+            this(name, kind, arg, "");
+        }
+
+        private Condition(String name, String kind, String arg, String scope) {
+            this.name = name;
+            this.kind = kind;
+            this.arg = arg;
+            this.scope = scope;
+        }
+
+        List<String> toScriptArg() {
+            return List.of(name, kind, arg, scope);
+        }
+    }
+
+    public static Condition urlContains(String name, String fragment) {
+        return new Condition(name, "urlContains", fragment);
+    }
+
+    public static Condition urlNotContains(String name, String fragment) {
+        return new Condition(name, "urlNotContains", fragment);
+    }
+
+    /** An element matching the CSS selector exists. */
+    public static Condition present(String name, String css) {
+        return new Condition(name, "present", css);
+    }
+
+    /** An element matching the CSS selector exists and is displayed. */
+    public static Condition visible(String name, String css) {
+        return new Condition(name, "visible", css);
+    }
+
+    /** No displayed element matches the CSS selector. */
+    public static Condition hidden(String name, String css) {
+        return new Condition(name, "hidden", css);
+    }
+
+    /**
+     * The page's text contains the given text. Read as textContent, which needs no
+     * layout, so hidden text counts too; prefer the scoped form on large pages.
+     */
+    public static Condition textPresent(String name, String text) {
+        return new Condition(name, "text", text);
+    }
+
+    /** The text of the first element matching containerCss contains the given text. */
+    public static Condition textPresent(String name, String containerCss, String text) {
+        return new Condition(name, "text", text, containerCss);
+    }
+
+    private static final String RACE_SCRIPT =
+            "var conds = arguments[0], timeoutMs = arguments[1], done = arguments[arguments.length - 1];" +
+            "function shown(e) {" +
+            "  if (!e) return false;" +
+            "  var s = getComputedStyle(e);" +
+            "  return s.display !== 'none' && s.visibility !== 'hidden' && e.getClientRects().length > 0;" +
+            "}" +
+            "function holds(c) {" +
+            "  var a = c[2];" +
+            "  switch (c[1]) {" +
+            "    case 'urlContains':    return location.href.indexOf(a) >= 0;" +
+            "    case 'urlNotContains': return location.href.indexOf(a) < 0;" +
+            "    case 'present':        return document.querySelector(a) !== null;" +
+            "    case 'visible':        return Array.prototype.some.call(document.querySelectorAll(a), shown);" +
+            "    case 'hidden':         return !Array.prototype.some.call(document.querySelectorAll(a), shown);" +
+            "    case 'text':" +
+            "      var root = c[3] ? document.querySelector(c[3]) : document.body;" +
+            "      return !!root && root.textContent.indexOf(a) >= 0;" +
+            "  }" +
+            "  return false;" +
+            "}" +
+            "function first() {" +
+            "  for (var i = 0; i < conds.length; i++) {" +
+            "    try { if (holds(conds[i])) return conds[i][0]; } catch (e) {}" +
+            "  }" +
+            "  return null;" +
+            "}" +
+            "var hit = first();" +
+            "if (hit !== null) { done(hit); return; }" +
+            "var finished = false, observer, timer, deadline;" +
+            "function finish(v) {" +
+            "  if (finished) return;" +
+            "  finished = true;" +
+            "  observer.disconnect(); clearInterval(timer); clearTimeout(deadline);" +
+            "  done(v);" +
+            "}" +
+            "function recheck() { var h = first(); if (h !== null) finish(h); }" +
+            "observer = new MutationObserver(recheck);" +
+            "observer.observe(document.documentElement," +
+            "    {childList: true, subtree: true, attributes: true, characterData: true});" +
+            "timer = setInterval(recheck, 50);" +
+            "deadline = setTimeout(function () { finish(null); }, timeoutMs);";
+
+    // Kept under DriverFactory's 30 s script timeout; longer races are re-sent
+    private static final long MAX_SCRIPT_MS = 20_000;
+    private static final long MIN_RETRY_MS = 50;
+    private static final long MAX_RETRY_MS = 800;
+
+    // Path regex → condition that makes the page usable. First match wins.
+    private static final Map<Pattern, ExpectedCondition<?>> contracts = new LinkedHashMap<>();
+
+    static {
+        register("^/products/?$",
+                ExpectedConditions.presenceOfElementLocated(By.cssSelector("a.add-to-cart[data-product-id]")));
+        register("^/product_details/\\d+/?$",
+                ExpectedConditions.elementToBeClickable(By.id("quantity")));
+        register("^/view_cart/?$",
+                ExpectedConditions.or(
+                        ExpectedConditions.presenceOfElementLocated(By.id("cart_info_table")),
+                        ExpectedConditions.presenceOfElementLocated(By.id("empty_cart"))));
+        register("^/login/?$",
+                ExpectedConditions.elementToBeClickable(By.cssSelector("input[data-qa='login-email']")));
+        // Pages generated from manifests (pages/*.json): every "ready" locator present, in one script
+        GeneratedPages.registerAll();
+    }
+
+    private Waits() {}
+
+    /** Adds (or replaces) the readiness contract for paths matching pathRegex. */
+    public static synchronized void register(String pathRegex, ExpectedCondition<?> ready) {
+        contracts.put(Pattern.compile(pathRegex), ready);
+    }
+
+    /** Loads url and returns as soon as its readiness contract holds. */
+    public static void navigate(WebDriver driver, String url) {
+        // With "none" get() can return while the old document is still shown, and it
+        // may satisfy the same contract (e.g. /products → /products). Wait for it to go.
+        WebElement oldRoot = null;
+        if ("none".equalsIgnoreCase(ConfigLoader.getPageLoadStrategy())) {
+            try {
+                oldRoot = driver.findElement(By.tagName("html"));
+            } catch (WebDriverException ignored) {}
+        }
+
+        driver.get(url);
+
+        WebDriverWait wait = newWait(driver);
+        if (oldRoot != null) {
+            wait.until(ExpectedConditions.stalenessOf(oldRoot));
+        }
+        wait.until(contractFor(URI.create(url).getPath()));
+    }
+
+    /**
+     * Waits for the contract of url's path, or for the DOM to be parsed if none is registered.
+     * For pages reached by a click rather than navigate().
+     */
+    public static void awaitReady(WebDriver driver, String url) {
+        newWait(driver).until(contractFor(URI.create(url).getPath()));
+    }
+
+    /**
+     * Waits until one of the conditions holds.
+     * @return the name of the condition that won, or null if none held within timeout
+     */
+    public static String race(WebDriver driver, Duration timeout, Condition... conditions) {
+        List<List<String>> args = new ArrayList<>();
+        for (Condition condition : conditions) {
+            args.add(condition.toScriptArg());
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long backoff = MIN_RETRY_MS;
+        while (true) {
+            long remainingMs = (deadline - System.nanoTime()) / 1_000_000;
+            if (remainingMs <= 0) {
+                return null;
+            }
+            long slice = Math.min(remainingMs, MAX_SCRIPT_MS);
+            try {
+                Object winner = ((JavascriptExecutor) driver).executeAsyncScript(RACE_SCRIPT, args, slice);
+                if (winner != null) {
+                    return (String) winner;
+                }
+            } catch (WebDriverException e) {
+                if (sessionLost(e)) {
+                    throw e;
+                }
+                // The page navigated (or was still unloading) under the script — ask the new one
+                sleep(Math.min(backoff, remainingMs));
+                backoff = Math.min(backoff * 2, MAX_RETRY_MS);
+            }
+        }
+    }
+
+    // Retrying can't help once the browser or the session is gone
+    private static boolean sessionLost(WebDriverException e) {
+        if (e instanceof NoSuchSessionException || e instanceof UnreachableBrowserException) {
+            return true;
+        }
+        String message = String.valueOf(e.getMessage());
+        return message.contains("not reachable") || message.contains("disconnected")
+                || message.contains("invalid session id");
+    }
+
+    private static void sleep(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WebDriverException("Interrupted while waiting", e);
+        }
+    }
+
+    private static WebDriverWait newWait(WebDriver driver) {
+        return new WebDriverWait(driver, Duration.ofSeconds(ConfigLoader.getPageLoadTimeoutSeconds()));
+    }
+
+    private static synchronized ExpectedCondition<?> contractFor(String path) {
+        String normalized = path == null || path.isEmpty() ? "/" : path;
+        for (Map.Entry<Pattern, ExpectedCondition<?>> contract : contracts.entrySet()) {
+            if (contract.getKey().matcher(normalized).matches()) {
+                return contract.getValue();
+            }
+        }
+        return Waits::domParsed;
+    }
+
+    // "interactive" is enough: scripts still loading don't block the next action
+    private static Boolean domParsed(WebDriver driver) {
+        Object state = ((JavascriptExecutor) driver).executeScript("return document.readyState");
+        return "interactive".equals(state) || "complete".equals(state);
+    }
 }
@@ -2,30 +2,66 @@ package utils;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.File;
 import java.io.InputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class jsonUtil {
 
+    // One mapper for every parse; ObjectMapper is thread-safe once configured
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // Parsed files by name. Data files are read-only at run time, so each is parsed once.
+    private static final Map<String, JsonNode> cache = new ConcurrentHashMap<>();
+
+    /**
+     * fileName as a resource, or else as a path on disk; parsed on first use only.
+     * Returns a copy, so callers may modify it without touching the cached tree.
+     */
     public static JsonNode readJson(String fileName) {
+        return cached(fileName).deepCopy();
+    }
+
+    // The shared cached tree itself, for read-only use inside utils
+    static JsonNode cached(String fileName) {
+        return cache.computeIfAbsent(fileName, jsonUtil::parse);
+    }
+
+    /** node bound to type with the shared mapper — a fresh object on every call. */
+    public static <T> T convert(JsonNode node, Class<T> type) {
         try {
-            ObjectMapper mapper = new ObjectMapper();
-            InputStream is = jsonUtil.class
-                    .getClassLoader()
-                    .getResourceAsStream(fileName);
+            return mapper.treeToValue(node, type);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to map JSON to " + type.getSimpleName(), e);
+        }
+    }
+
+    private static JsonNode parse(String fileName) {
+        try (InputStream is = jsonUtil.class
+                .getClassLoader()
+                .getResourceAsStream(fileName)) {
 
-            if (is == null) {
+            if (is != null) {
+                return mapper.readTree(is);
+            }
+            File file = new File(fileName);
+            if (!file.isFile()) {
                 throw new RuntimeException("JSON file not found: " + fileName);
             }
-
-            return mapper.readTree(is);
+            return mapper.readTree(file);
 
         } catch (Exception e) {
             throw new RuntimeException("Failed to read JSON: " + fileName, e);
         }
     }
 
+    /** Prefer the typed TestData accessors for the data files the page objects read. */
     public static String getValue(String fileName, String key) {
-        JsonNode data = readJson(fileName);
-        return data.get(key).asText();
+        JsonNode value = cached(fileName).get(key);
+        if (value == null) {
+            throw new RuntimeException("'" + key + "' key not found in " + fileName + ".");
+        }
+        return value.asText();
     }
 }
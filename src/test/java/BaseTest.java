@@ -1,9 +1,10 @@
 // BaseTest.java - TestNG base class; boots the driver once before all tests
 
 import Browser_utils.DriverManager;
-import config.ConfigLoader;
+import Browser_utils.LocatorProfiler;
 import org.openqa.selenium.WebDriver;
 import org.testng.annotations.*;
+import runner.SuiteBootstrap;
 
 public class BaseTest {
 
@@ -11,13 +12,17 @@ public class BaseTest {
 
     @BeforeClass(alwaysRun = true)
     public void suiteSetup() {
-        DriverManager.initializeDriver();
+        // Data, driver binary and browser launch run concurrently; ends on Website_Url
+        SuiteBootstrap.run();
         driver = DriverManager.getDriver();
-        driver.get(ConfigLoader.getWebsiteUrl());
     }
 
+    // No per-method recycle: the @Test methods are dependent steps of one flow, and a
+    // recycle keeps only URL and cookies. Each class's flow gets a fresh browser anyway.
     @AfterClass(alwaysRun = true)
     public void suiteTearDown() {
+        LocatorProfiler.report();
+        SuiteBootstrap.finish();
         DriverManager.quitDriver();
     }
 }
\ No newline at end of file
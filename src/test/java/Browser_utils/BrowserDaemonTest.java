@@ -0,0 +1,70 @@
+package Browser_utils;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.remote.Command;
+import org.openqa.selenium.remote.DriverCommand;
+import org.openqa.selenium.remote.HttpCommandExecutor;
+import org.openqa.selenium.remote.RemoteWebDriver;
+import org.openqa.selenium.remote.Response;
+import org.openqa.selenium.remote.SessionId;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+public class BrowserDaemonTest {
+
+    // Answers new-session locally, so a RemoteWebDriver exists without any browser
+    private static class FakeExecutor extends HttpCommandExecutor {
+        FakeExecutor() throws IOException {
+            super(new URL("http://localhost:9515"));
+        }
+
+        @Override
+        public Response execute(Command command) {
+            Response response = new Response(new SessionId("fake-session"));
+            response.setStatus(0);
+            response.setState("success");
+            if (DriverCommand.NEW_SESSION.equals(command.getName())) {
+                response.setValue(Map.of("browserName", "chrome", "browserVersion", "142"));
+            }
+            return response;
+        }
+    }
+
+    private static RemoteWebDriver fakeSession() throws IOException {
+        return new RemoteWebDriver(new FakeExecutor(), new ChromeOptions());
+    }
+
+    @Test
+    public void describesAPlainSession() throws IOException {
+        ObjectNode node = BrowserDaemon.describe(new BrowserDaemon.DaemonSession("chrome-1", "chrome", fakeSession()));
+
+        Assert.assertEquals(node.get("sessionId").asText(), "fake-session");
+        Assert.assertEquals(node.get("serverUrl").asText(), "http://localhost:9515");
+    }
+
+    @Test
+    public void describesASessionOnAProfileTemplateClone() throws IOException {
+        Path clone = Files.createTempDirectory("daemon-clone");
+        WebDriver decorated = ProfileTemplate.deleteOnQuit(fakeSession(), clone);
+        Assert.assertFalse(decorated instanceof RemoteWebDriver, "template mode should hand out a decorator");
+
+        BrowserDaemon.DaemonSession session = new BrowserDaemon.DaemonSession("chrome-1", "chrome", decorated);
+        ObjectNode node = BrowserDaemon.describe(session);
+
+        Assert.assertSame(session.driver, decorated);
+        Assert.assertEquals(node.get("sessionId").asText(), "fake-session");
+        Assert.assertEquals(node.get("serverUrl").asText(), "http://localhost:9515");
+        Assert.assertEquals(node.get("capabilities").get("browserName").asText(), "chrome");
+
+        decorated.quit();
+        Assert.assertFalse(Files.exists(clone), "quit through the decorator still discards the clone");
+    }
+}
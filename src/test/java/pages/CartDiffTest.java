@@ -0,0 +1,93 @@
+package pages;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+public class CartDiffTest {
+
+    private static CartLine line(String id, String name, String price, int quantity, String total) {
+        return new CartLine(id, name, CartLine.parseMoney(price), quantity, CartLine.parseMoney(total));
+    }
+
+    @Test
+    public void matchingCartHasNoDifferences() {
+        CartDiff diff = CartDiff.between(
+                List.of(new Product("1", "Blue Top", 2, "Rs. 500")),
+                List.of(line("1", "Blue Top", "Rs. 500", 2, "Rs. 1000")));
+
+        Assert.assertTrue(diff.isEmpty(), diff.toString());
+    }
+
+    @Test
+    public void duplicateProductIdsAreSummed() {
+        CartDiff diff = CartDiff.between(
+                List.of(new Product("2", "Men Tshirt", 1, "Rs. 400"),
+                        new Product("2", "Men Tshirt", 2, "Rs. 400")),
+                List.of(line("2", "Men Tshirt", "Rs. 400", 3, "Rs. 1,200")));
+
+        Assert.assertTrue(diff.isEmpty(), diff.toString());
+    }
+
+    @Test
+    public void duplicatesDoNotChangeTheCallersProducts() {
+        Product first = new Product("2", "Men Tshirt", 1, "Rs. 400");
+        CartDiff.between(List.of(first, new Product("2", "Men Tshirt", 2, "Rs. 400")), List.of());
+
+        Assert.assertEquals(first.getQuantity(), 1);
+    }
+
+    @Test
+    public void thousandsSeparatorInPricesMatches() {
+        CartDiff diff = CartDiff.between(
+                List.of(new Product("3", "Sleeveless Dress", 1, "Rs. 1,500")),
+                List.of(line("3", "Sleeveless Dress", "Rs. 1500", 1, "Rs. 1,500")));
+
+        Assert.assertTrue(diff.isEmpty(), diff.toString());
+    }
+
+    @Test
+    public void totalThatIsNotPriceTimesQuantityIsAMismatch() {
+        CartDiff diff = CartDiff.between(
+                List.of(new Product("1", "Blue Top", 2, "Rs. 500")),
+                List.of(line("1", "Blue Top", "Rs. 500", 2, "Rs. 900")));
+
+        Assert.assertTrue(diff.hasMismatches());
+        Assert.assertEquals(diff.getMismatches().size(), 1);
+        Assert.assertTrue(diff.getMismatches().get(0).contains("total 900"), diff.toString());
+        Assert.assertTrue(diff.getMissing().isEmpty());
+        Assert.assertTrue(diff.getUnexpected().isEmpty());
+    }
+
+    @Test
+    public void wrongPriceAndQuantityAreMismatches() {
+        CartDiff diff = CartDiff.between(
+                List.of(new Product("1", "Blue Top", 2, "Rs. 500")),
+                List.of(line("1", "Blue Top", "Rs. 600", 1, "Rs. 600")));
+
+        Assert.assertEquals(diff.getMismatches().size(), 2, diff.toString());
+    }
+
+    @Test
+    public void missingAndUnexpectedLinesAreReported() {
+        CartDiff diff = CartDiff.between(
+                List.of(new Product("1", "Blue Top", 1, "Rs. 500"),
+                        new Product("2", "Men Tshirt", 1, "Rs. 400")),
+                List.of(line("1", "Blue Top", "Rs. 500", 1, "Rs. 500"),
+                        line("7", "Madame Top", "Rs. 1,000", 1, "Rs. 1,000")));
+
+        Assert.assertEquals(diff.getMissing(), List.of("Men Tshirt (id 2)"));
+        Assert.assertEquals(diff.getUnexpected(), List.of("Madame Top (id 7)"));
+        Assert.assertFalse(diff.hasMismatches());
+        Assert.assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    public void emptyCartMissesEverything() {
+        CartDiff diff = CartDiff.between(List.of(new Product("1", "Blue Top", 1, "Rs. 500")), List.of());
+
+        Assert.assertEquals(diff.getMissing(), List.of("Blue Top (id 1)"));
+        Assert.assertTrue(diff.getUnexpected().isEmpty());
+    }
+}
@@ -0,0 +1,34 @@
+package pages;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+
+public class CartLineTest {
+
+    @Test
+    public void parsesPlainPrice() {
+        Assert.assertEquals(CartLine.parseMoney("Rs. 500"), new BigDecimal("500"));
+    }
+
+    @Test
+    public void parsesThousandsSeparator() {
+        Assert.assertEquals(CartLine.parseMoney("Rs. 1,500"), new BigDecimal("1500"));
+    }
+
+    @Test
+    public void keepsDecimalsButNotTheCurrencyDot() {
+        Assert.assertEquals(CartLine.parseMoney("Rs. 1,234.50"), new BigDecimal("1234.50"));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsTextWithoutANumber() {
+        CartLine.parseMoney("Rs. ");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsNull() {
+        CartLine.parseMoney(null);
+    }
+}
@@ -0,0 +1,161 @@
+package runner;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+public class ShardPlannerTest {
+
+    private static List<String> scenarios(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            ids.add(ShardPlanner.scenarioId("product", String.valueOf(i)));
+        }
+        return ids;
+    }
+
+    @Test
+    public void everyScenarioLandsOnExactlyOneShard() {
+        List<String> ids = scenarios(23);
+        for (int count = 1; count <= 5; count++) {
+            ShardPlanner planner = new ShardPlanner(count, Map.of());
+            List<String> seen = new ArrayList<>();
+            for (int index = 0; index < count; index++) {
+                seen.addAll(planner.scenariosForShard(ids, index));
+            }
+            Assert.assertEquals(seen.size(), ids.size(), "count=" + count);
+            Assert.assertEquals(new HashSet<>(seen), new HashSet<>(ids), "count=" + count);
+        }
+    }
+
+    @Test
+    public void shardsKeepInputOrder() {
+        List<String> ids = scenarios(12);
+        for (List<String> shard : new ShardPlanner(3, Map.of()).plan(ids)) {
+            List<String> sorted = new ArrayList<>(shard);
+            sorted.sort((a, b) -> Integer.compare(ids.indexOf(a), ids.indexOf(b)));
+            Assert.assertEquals(shard, sorted);
+        }
+    }
+
+    @Test
+    public void assignmentDoesNotDependOnInputOrder() {
+        List<String> ids = scenarios(30);
+        Map<String, Long> timings = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i += 2) {
+            timings.put(ids.get(i), 1_000L * (i % 7 + 1));
+        }
+        ShardPlanner planner = new ShardPlanner(4, timings);
+
+        List<String> shuffled = new ArrayList<>(ids);
+        Collections.shuffle(shuffled, new Random(42));
+
+        List<List<String>> original = planner.plan(ids);
+        List<List<String>> reordered = planner.plan(shuffled);
+        for (int shard = 0; shard < 4; shard++) {
+            Assert.assertEquals(new HashSet<>(reordered.get(shard)), new HashSet<>(original.get(shard)),
+                    "shard " + shard);
+        }
+    }
+
+    @Test
+    public void separatePlannersAgreeOnEachShard() {
+        // Each JVM builds its own planner and only asks for its own index
+        List<String> ids = scenarios(17);
+        Map<String, Long> timings = Map.of(ids.get(0), 90_000L, ids.get(5), 45_000L);
+        Set<String> union = new HashSet<>();
+        for (int index = 0; index < 3; index++) {
+            List<String> mine = new ShardPlanner(3, new LinkedHashMap<>(timings)).scenariosForShard(ids, index);
+            Assert.assertEquals(mine, new ShardPlanner(3, timings).scenariosForShard(ids, index));
+            for (String id : mine) {
+                Assert.assertTrue(union.add(id), id + " planned on two shards");
+            }
+        }
+        Assert.assertEquals(union.size(), ids.size());
+    }
+
+    @Test
+    public void balancesByHistoricalDuration() {
+        List<String> ids = List.of("a", "b", "c", "d", "e", "f");
+        Map<String, Long> timings = Map.of(
+                "a", 60_000L, "b", 50_000L, "c", 40_000L,
+                "d", 30_000L, "e", 20_000L, "f", 10_000L);
+        long[] load = new ShardPlanner(2, timings).estimatedLoad(ids);
+
+        Assert.assertEquals(load[0] + load[1], 210_000L);
+        // Longest-first onto the lightest shard: never further apart than the longest scenario
+        Assert.assertTrue(Math.abs(load[0] - load[1]) <= 60_000L,
+                "unbalanced: " + load[0] + " vs " + load[1]);
+        Assert.assertEquals(Math.abs(load[0] - load[1]), 10_000L);
+    }
+
+    @Test
+    public void longScenarioGetsAShardToItself() {
+        List<String> ids = List.of("slow", "q1", "q2", "q3", "q4");
+        Map<String, Long> timings = Map.of("slow", 100_000L,
+                "q1", 5_000L, "q2", 5_000L, "q3", 5_000L, "q4", 5_000L);
+        List<List<String>> plan = new ShardPlanner(2, timings).plan(ids);
+
+        List<String> slowShard = plan.get(0).contains("slow") ? plan.get(0) : plan.get(1);
+        Assert.assertEquals(slowShard, List.of("slow"));
+    }
+
+    @Test
+    public void unknownScenariosCostTheMedian() {
+        Map<String, Long> timings = Map.of("a", 10_000L, "b", 20_000L, "c", 30_000L);
+        long[] load = new ShardPlanner(1, timings).estimatedLoad(List.of("a", "b", "c", "new"));
+        Assert.assertEquals(load[0], 80_000L);
+    }
+
+    @Test
+    public void hashPlacementIsStableAndInRange() {
+        ShardPlanner planner = new ShardPlanner(5, Map.of());
+        for (String id : scenarios(50)) {
+            int shard = planner.shardOf(id);
+            Assert.assertTrue(shard >= 0 && shard < 5);
+            Assert.assertEquals(new ShardPlanner(5, null).shardOf(id), shard);
+        }
+    }
+
+    @Test
+    public void withoutAProfileThePlanIsHashPlacement() {
+        ShardPlanner planner = new ShardPlanner(4, Map.of());
+        List<List<String>> plan = planner.plan(scenarios(40));
+        for (int shard = 0; shard < 4; shard++) {
+            for (String id : plan.get(shard)) {
+                Assert.assertEquals(planner.shardOf(id), shard, id);
+            }
+        }
+    }
+
+    @Test
+    public void profileHashIgnoresMapOrder() {
+        Map<String, Long> forward = new LinkedHashMap<>();
+        forward.put("a", 1L);
+        forward.put("b", 2L);
+        Map<String, Long> backward = new LinkedHashMap<>();
+        backward.put("b", 2L);
+        backward.put("a", 1L);
+
+        Assert.assertEquals(ShardPlanner.profileHash(forward), ShardPlanner.profileHash(backward));
+        Assert.assertNotEquals(ShardPlanner.profileHash(forward), ShardPlanner.profileHash(Map.of("a", 1L)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsIndexOutsideCount() {
+        new ShardPlanner(3, Map.of()).scenariosForShard(scenarios(5), 3);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void rejectsZeroShards() {
+        new ShardPlanner(0, Map.of());
+    }
+}
@@ -0,0 +1,95 @@
+package runner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class ShardResultsTest {
+
+    private Path dir;
+
+    @BeforeMethod
+    public void createDir() throws IOException {
+        dir = Files.createTempDirectory("shards");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void deleteDir() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private static ScenarioResult result(String id, ScenarioResult.Status status, long durationMs, long queueWaitMs) {
+        ScenarioResult result = new ScenarioResult(id, "chrome", status, durationMs,
+                status == ScenarioResult.Status.FAILED ? "AssertionError: boom" : null);
+        result.setQueueWaitMs(queueWaitMs);
+        return result;
+    }
+
+    @Test
+    public void mergeCombinesEveryShard() throws IOException {
+        ShardResults.writePartial(dir, 0, List.of(
+                result("product:1", ScenarioResult.Status.PASSED, 4_000, 0),
+                result("product:2", ScenarioResult.Status.FAILED, 6_000, 1_000)));
+        ShardResults.writePartial(dir, 1, List.of(
+                result("product:3", ScenarioResult.Status.PASSED, 9_000, 0)));
+
+        List<ScenarioResult> all = ShardResults.merge(dir);
+        Assert.assertEquals(all.size(), 3);
+
+        JsonNode report = new ObjectMapper().readTree(dir.resolve("combined-report.json").toFile());
+        Assert.assertEquals(report.get("total").asInt(), 3);
+        Assert.assertEquals(report.get("failed").asInt(), 1);
+        Assert.assertEquals(report.get("slowestShardMs").asLong(), 10_000L);
+        Assert.assertEquals(report.get("shards").get(0).get("queueWaitMs").asLong(), 1_000L);
+    }
+
+    @Test
+    public void timingsExcludeQueueWait() {
+        ShardResults.writePartial(dir, 0, List.of(result("product:1", ScenarioResult.Status.PASSED, 5_000, 2_000)));
+        ShardResults.merge(dir);
+
+        Assert.assertEquals(ShardResults.loadTimings(dir), Map.of("product:1", 3_000L));
+    }
+
+    @Test
+    public void timingsAreSmoothedWithThePreviousProfile() {
+        ShardResults.writePartial(dir, 0, List.of(result("product:1", ScenarioResult.Status.PASSED, 1_000, 0)));
+        ShardResults.merge(dir);
+        ShardResults.writePartial(dir, 0, List.of(result("product:1", ScenarioResult.Status.PASSED, 3_000, 0)));
+        ShardResults.merge(dir);
+
+        Assert.assertEquals(ShardResults.loadTimings(dir).get("product:1"), Long.valueOf(2_000L));
+    }
+
+    @Test
+    public void mergeSkipsStrayShardFiles() throws IOException {
+        ShardResults.writePartial(dir, 0, List.of(result("product:1", ScenarioResult.Status.PASSED, 1_000, 0)));
+        Files.writeString(dir.resolve("shard-0.json.bak.json"), "not a shard");
+        Files.writeString(dir.resolve("shard-old.json"), "[]");
+
+        Assert.assertEquals(ShardResults.merge(dir).size(), 1);
+    }
+
+    @Test
+    public void missingProfileIsEmpty() {
+        Assert.assertTrue(ShardResults.loadTimings(dir).isEmpty());
+    }
+
+    @Test(expectedExceptions = RuntimeException.class)
+    public void mergeWithoutShardFilesFails() {
+        ShardResults.merge(dir);
+    }
+}